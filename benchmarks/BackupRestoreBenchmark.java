@@ -0,0 +1,108 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backing up and restoring test instances with a growing number of fields.
+ * A quarter of the fields are primitives, and the rest hold values that are
+ * shared (Integer), copied (String) and cloned (ArrayList).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackupRestoreBenchmark {
+
+    public static class Wide8 {
+        int p0, p1;
+        Integer i0, i1;
+        String s0, s1;
+        ArrayList<String> l0, l1;
+
+        public Wide8() {
+        }
+    }
+
+    public static class Wide32 {
+        int p0, p1, p2, p3, p4, p5, p6, p7;
+        Integer i0, i1, i2, i3, i4, i5, i6, i7;
+        String s0, s1, s2, s3, s4, s5, s6, s7;
+        ArrayList<String> l0, l1, l2, l3, l4, l5, l6, l7;
+
+        public Wide32() {
+        }
+    }
+
+    public static class Wide128 {
+        int p0, p1, p2, p3, p4, p5, p6, p7,
+                p8, p9, p10, p11, p12, p13, p14, p15,
+                p16, p17, p18, p19, p20, p21, p22, p23,
+                p24, p25, p26, p27, p28, p29, p30, p31;
+        Integer i0, i1, i2, i3, i4, i5, i6, i7,
+                i8, i9, i10, i11, i12, i13, i14, i15,
+                i16, i17, i18, i19, i20, i21, i22, i23,
+                i24, i25, i26, i27, i28, i29, i30, i31;
+        String s0, s1, s2, s3, s4, s5, s6, s7,
+                s8, s9, s10, s11, s12, s13, s14, s15,
+                s16, s17, s18, s19, s20, s21, s22, s23,
+                s24, s25, s26, s27, s28, s29, s30, s31;
+        ArrayList<String> l0, l1, l2, l3, l4, l5, l6, l7,
+                l8, l9, l10, l11, l12, l13, l14, l15,
+                l16, l17, l18, l19, l20, l21, l22, l23,
+                l24, l25, l26, l27, l28, l29, l30, l31;
+
+        public Wide128() {
+        }
+    }
+
+    @Param({"8", "32", "128"})
+    public int width;
+
+    private Object instance;
+    private Object backup;
+
+    @Setup
+    public void setUp() throws Throwable {
+        instance = Class.forName(BackupRestoreBenchmark.class.getName() + "$Wide" + width)
+                .getDeclaredConstructor().newInstance();
+        int n = 0;
+        for (Field field : instance.getClass().getDeclaredFields()) {
+            field.setAccessible(true);
+            Class<?> type = field.getType();
+            if (type == int.class) field.setInt(instance, n);
+            else if (type == Integer.class) field.set(instance, 1000 + n);
+            else if (type == String.class) field.set(instance, "value" + n);
+            else field.set(instance, new ArrayList<>(Collections.nCopies(4, "item")));
+            n++;
+        }
+        backup = Internals.backUpInstance(instance);
+    }
+
+    @Benchmark
+    public Object backUp() throws Throwable {
+        return Internals.backUpInstance(instance);
+    }
+
+    /** Only the fields that differ from the backup are written; here, the copied and cloned ones **/
+    @Benchmark
+    public int restore() throws Throwable {
+        return Internals.restoreInstance(instance, backup);
+    }
+}
@@ -0,0 +1,150 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares backing up an instance by probing every field's class for a clone
+ * method and a copy constructor (catching NoSuchMethodException, as the tester
+ * used to) with the cached per-class copy strategies.
+ * For the probing backup, the exceptions and backups counters show the exceptions it
+ * catches per backup. Only that copy of the old code is instrumented: the exceptions
+ * of the cached backup are not measured, so it reports no such counter. Its copy
+ * strategies are resolved by scanning declared members (see CopyStrategy), which
+ * catches no exceptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackupStrategyBenchmark {
+
+    public static class Copied {
+        int value;
+
+        Copied(int value) {
+            this.value = value;
+        }
+
+        Copied(Copied other) {
+            this.value = other.value;
+        }
+    }
+
+    public static class Plain {
+        int value;
+    }
+
+    /** Inherits clone() from its parent, which takes the probing two lookups **/
+    public static class DerivedList extends ArrayList<String> {
+    }
+
+    public static class Fixture {
+        Integer boxed = 5;
+        String name = "name";
+        Copied copied = new Copied(1);
+        Plain plain = new Plain();
+        ArrayList<String> list = new ArrayList<>();
+        DerivedList derivedList = new DerivedList();
+        int[] array = null;
+        long primitive = 7;
+    }
+
+    /** Counted by the probing backup only **/
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long exceptions;
+        public long backups;
+    }
+
+    private Fixture fixture;
+
+    @Setup
+    public void setUp() {
+        fixture = new Fixture();
+    }
+
+    @Benchmark
+    public Object probingBackup(Counters counters) throws Exception {
+        counters.backups++;
+        return LegacyBackup.backUpInstance(fixture, counters);
+    }
+
+    @Benchmark
+    public Object cachedStrategyBackup() throws Throwable {
+        return Internals.backUpInstance(fixture);
+    }
+
+    /** The reflective backup the tester used before copy strategies were cached **/
+    static final class LegacyBackup {
+
+        private static boolean copyConstructorExists(Class<?> c, Counters counters) {
+            try {
+                c.getDeclaredConstructor(c);
+                return true;
+            } catch (NoSuchMethodException e) {
+                counters.exceptions++;
+                return false;
+            }
+        }
+
+        private static Method getCloneMethod(Class<?> c, Counters counters) {
+            if (c == Object.class) return null;
+
+            try {
+                return c.getDeclaredMethod("clone");
+            } catch (NoSuchMethodException e) {
+                counters.exceptions++;
+                return getCloneMethod(c.getSuperclass(), counters);
+            }
+        }
+
+        static Object backUpInstance(Object obj, Counters counters) throws Exception {
+            Constructor<?> ctor = obj.getClass().getDeclaredConstructor();
+            ctor.setAccessible(true);
+            Object res = ctor.newInstance();
+            for (Field field : obj.getClass().getDeclaredFields()) {
+                field.setAccessible(true);
+                Object fieldObject = field.get(obj);
+                if (fieldObject == null) {
+                    field.set(res, null);
+                    continue;
+                }
+                Class<?> fieldClass = fieldObject.getClass();
+                Object fieldObjectClone;
+                if (fieldObject instanceof Cloneable) {
+                    Method clone = getCloneMethod(fieldClass, counters);
+                    if (clone == null) throw new RuntimeException("This cloneable class is not cloneable!");
+                    clone.setAccessible(true);
+                    fieldObjectClone = clone.invoke(fieldObject);
+                } else if (copyConstructorExists(fieldClass, counters)) {
+                    Constructor<?> cons = fieldClass.getDeclaredConstructor(fieldClass);
+                    cons.setAccessible(true);
+                    fieldObjectClone = cons.newInstance(fieldObject);
+                } else {
+                    fieldObjectClone = fieldObject;
+                }
+                field.set(res, fieldObjectClone);
+            }
+            return res;
+        }
+    }
+}
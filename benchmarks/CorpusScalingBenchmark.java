@@ -0,0 +1,99 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import provided.StoryTestException;
+import solution.StoryTesterImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Story runs on generated corpora (see StoryCorpusGenerator), sweeping the
+ * number of steps per class, the depth of the inheritance tree, the story
+ * length and failure rate, and the shape of the nested classes tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusScalingBenchmark {
+
+    private static final long SEED = 42;
+
+    @State(Scope.Benchmark)
+    public static class Inheritance {
+        @Param({"10", "100", "1000"})
+        public int stepsPerClass;
+
+        @Param({"1", "4", "10"})
+        public int hierarchyDepth;
+
+        @Param({"10", "1000"})
+        public int pairs;
+
+        @Param({"0.0", "0.1"})
+        public double failureRate;
+
+        final StoryTesterImpl tester = new StoryTesterImpl();
+        Class<?> testClass;
+        String story;
+
+        @Setup
+        public void setUp() throws Exception {
+            StoryCorpusGenerator generator = new StoryCorpusGenerator(SEED)
+                    .stepsPerClass(stepsPerClass).hierarchyDepth(hierarchyDepth).nestedDepth(0);
+            testClass = generator.compile().getStepsClass();
+            story = generator.story(pairs, failureRate, SEED).getText();
+        }
+    }
+
+    /** The story targets the last class of the nested tree, the one searched last **/
+    @State(Scope.Benchmark)
+    public static class Nesting {
+        @Param({"2", "4"})
+        public int nestedFanOut;
+
+        @Param({"1", "3", "5"})
+        public int nestedDepth;
+
+        final StoryTesterImpl tester = new StoryTesterImpl();
+        Class<?> testClass;
+        String story;
+
+        @Setup
+        public void setUp() throws Exception {
+            StoryCorpusGenerator generator = new StoryCorpusGenerator(SEED).stepsPerClass(1)
+                    .hierarchyDepth(1).nestedFanOut(nestedFanOut).nestedDepth(nestedDepth);
+            testClass = generator.compile().getNestedClass();
+            List<String> paths = generator.nestedPaths();
+            story = generator.nestedStory(paths.get(paths.size() - 1), 10, 0.0, SEED).getText();
+        }
+    }
+
+    @Benchmark
+    public int inheritanceStory(Inheritance state) throws Exception {
+        try {
+            state.tester.testOnInheritanceTree(state.story, state.testClass);
+            return 0;
+        } catch (StoryTestException e) {
+            return e.getNumFail();
+        }
+    }
+
+    @Benchmark
+    public int nestedStory(Nesting state) throws Exception {
+        state.tester.testOnNestedClasses(state.story, state.testClass);
+        return 0;
+    }
+}
@@ -0,0 +1,122 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solution.CompiledStory;
+import solution.Given;
+import solution.InstantiationMode;
+import solution.StoryCompiler;
+import solution.StoryTesterImpl;
+import solution.Then;
+import solution.When;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating test instances: the reflective lookup createTestInstance used to do on every
+ * call, against the constructor handles resolved once per class, for a static class and
+ * for a member class two enclosing instances deep (TestNested.StarWars.Jedi). Also full
+ * runs of a story of a few microseconds, whose instance is constructed or cloned.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstantiationBenchmark {
+
+    public static class Fixture implements Cloneable {
+        private int count;
+        private String name = "fixture";
+        private ArrayList<Integer> values = new ArrayList<>();
+
+        public Fixture() {
+            for (int i = 0; i < 8; i++) values.add(i);
+        }
+
+        @Given("a fixture of &count")
+        public void given(int count) {
+            this.count = count;
+        }
+
+        @When("adding &x")
+        public void add(int x) {
+            count += x;
+        }
+
+        @Then("the count is &count")
+        public void is(int count) {
+            if (this.count != count) throw new IllegalStateException();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Classes {
+        @Param({"STATIC", "INNER"})
+        public String shape;
+
+        Class<?> testClass;
+
+        @Setup
+        public void setUp() throws ClassNotFoundException {
+            testClass = shape.equals("STATIC") ? Fixture.class : Class.forName("tests.TestNested$StarWars$Jedi");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ShortStory {
+        @Param({"CONSTRUCTOR", "TEMPLATE_CLONE"})
+        public InstantiationMode mode;
+
+        StoryTesterImpl tester;
+        final CompiledStory story = StoryCompiler.compile("Given a fixture of 1\n"
+                + "When adding 2\n"
+                + "Then the count is 3");
+
+        @Setup
+        public void setUp() {
+            tester = new StoryTesterImpl().withInstantiationMode(mode);
+        }
+    }
+
+    /** createTestInstance as it was, looking up the constructors on every call **/
+    private static Object reflectiveInstance(Class<?> testClass) throws Exception {
+        if (!testClass.isMemberClass() || Modifier.isStatic(testClass.getModifiers())) {
+            Constructor<?> ctor = testClass.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            return ctor.newInstance();
+        }
+        Class<?> enclosing = testClass.getEnclosingClass();
+        Object enclosingInstance = reflectiveInstance(enclosing);
+        Constructor<?> ctor = testClass.getDeclaredConstructor(enclosing);
+        ctor.setAccessible(true);
+        return ctor.newInstance(enclosingInstance);
+    }
+
+    @Benchmark
+    public Object reflective(Classes classes) throws Exception {
+        return reflectiveInstance(classes.testClass);
+    }
+
+    @Benchmark
+    public Object factory(Classes classes) throws Throwable {
+        return Internals.createTestInstance(classes.testClass);
+    }
+
+    @Benchmark
+    public Object shortStory(ShortStory story) throws Exception {
+        return story.tester.runOnInheritanceTree(story.story, Fixture.class);
+    }
+}
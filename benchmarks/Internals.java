@@ -0,0 +1,54 @@
+package benchmarks;
+
+import solution.StoryTesterImpl;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+/**
+ * Handles to the package-private parts of StoryTesterImpl the benchmarks measure,
+ * obtained the same way the tests reach them: by reflection.
+ */
+final class Internals {
+
+    /** (Class, Class, String)Method **/
+    static final MethodHandle FIND_METHOD_BY_ANNOTATION =
+            handle("findMethodByAnnotation", Class.class, Class.class, String.class);
+    /** (Object)Object **/
+    static final MethodHandle BACK_UP_INSTANCE = handle("backUpInstance", Object.class);
+    /** (Object, Object)int **/
+    static final MethodHandle RESTORE_INSTANCE = handle("restoreInstance", Object.class, Object.class);
+    /** (Class)Object **/
+    static final MethodHandle CREATE_TEST_INSTANCE = handle("createTestInstance", Class.class);
+
+    private Internals() {
+    }
+
+    private static MethodHandle handle(String name, Class<?>... parameterTypes) {
+        try {
+            Method method = StoryTesterImpl.class.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static Method findMethodByAnnotation(Class<?> c, Class<? extends Annotation> annotationClass, String sentenceSub) throws Throwable {
+        return (Method) FIND_METHOD_BY_ANNOTATION.invokeExact(c, (Class) annotationClass, sentenceSub);
+    }
+
+    static Object backUpInstance(Object obj) throws Throwable {
+        return (Object) BACK_UP_INSTANCE.invokeExact(obj);
+    }
+
+    static int restoreInstance(Object obj, Object backup) throws Throwable {
+        return (int) RESTORE_INSTANCE.invokeExact(obj, backup);
+    }
+
+    static Object createTestInstance(Class<?> testClass) throws Throwable {
+        return (Object) CREATE_TEST_INSTANCE.invokeExact((Class) testClass);
+    }
+}
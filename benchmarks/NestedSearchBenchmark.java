@@ -0,0 +1,71 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solution.StoryTesterImpl;
+import tests.StoryTest;
+import tests.TestNested;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs of testOnNestedClasses, where the story's class is nested more and more deeply.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedSearchBenchmark {
+
+    /**
+     * jedi: TestNested.StarWars.Jedi, the first nested class.
+     * sith: TestNested.StarWars.Sith, the second nested class.
+     * inner4: StoryTest.Inner1.Inner2.Inner3.Inner4, four levels deep after other nested trees.
+     */
+    @Param({"jedi", "sith", "inner4"})
+    public String target;
+
+    private final StoryTesterImpl tester = new StoryTesterImpl();
+    private String story;
+    private Class<?> testClass;
+
+    @Setup
+    public void setUp() {
+        switch (target) {
+            case "jedi":
+                testClass = TestNested.StarWars.class;
+                story = "Given a Jedi named JarJar\n"
+                        + "When the Jedi fights a Sith Maul\n"
+                        + "Then the Jedi strength is 110";
+                break;
+            case "sith":
+                testClass = TestNested.StarWars.class;
+                story = "Given a Sith named DarthVader\n"
+                        + "When the Sith fights a Jedi Yoda\n"
+                        + "Then the Sith strength is 110";
+                break;
+            default:
+                testClass = StoryTest.class;
+                story = "Given C of Inner x 4\n"
+                        + "When C's Inner y is 3\n"
+                        + "Then C's Inner y is 3";
+        }
+    }
+
+    @Benchmark
+    public Class<?> nestedStory() throws Exception {
+        tester.testOnNestedClasses(story, testClass);
+        return testClass;
+    }
+}
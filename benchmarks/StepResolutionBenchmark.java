@@ -0,0 +1,138 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solution.Given;
+import solution.Then;
+import solution.When;
+import tests.StoryTest;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a single story line to its step method, up the inheritance tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepResolutionBenchmark {
+
+    public static class Level0 {
+        @Given("step at level 0 &x")
+        public void step0(Integer x) {
+        }
+    }
+
+    public static class Level1 extends Level0 {
+        @Given("step at level 1 &x")
+        public void step1(Integer x) {
+        }
+    }
+
+    public static class Level2 extends Level1 {
+        @Given("step at level 2 &x")
+        public void step2(Integer x) {
+        }
+    }
+
+    public static class Level3 extends Level2 {
+        @Given("step at level 3 &x")
+        public void step3(Integer x) {
+        }
+    }
+
+    public static class Level4 extends Level3 {
+        @Given("step at level 4 &x")
+        public void step4(Integer x) {
+        }
+    }
+
+    public static class Level5 extends Level4 {
+        @Given("step at level 5 &x")
+        public void step5(Integer x) {
+        }
+    }
+
+    public static class Level6 extends Level5 {
+        @Given("step at level 6 &x")
+        public void step6(Integer x) {
+        }
+    }
+
+    public static class Level7 extends Level6 {
+        @Given("step at level 7 &x")
+        public void step7(Integer x) {
+        }
+    }
+
+    public static class Level8 extends Level7 {
+        @Given("step at level 8 &x")
+        public void step8(Integer x) {
+        }
+    }
+
+    public static class Level9 extends Level8 {
+        @Given("step at level 9 &x")
+        public void step9(Integer x) {
+        }
+    }
+
+    private static final Class<?>[] LEVELS = {
+            Level0.class, Level1.class, Level2.class, Level3.class, Level4.class,
+            Level5.class, Level6.class, Level7.class, Level8.class, Level9.class
+    };
+
+    /** Steps of StoryTest found in StoryTest, StoryTestParent1 and StoryTestParent2, and a missing one **/
+    @State(Scope.Benchmark)
+    public static class StoryTestLine {
+        @Param({"Given:A of x", "Given:B of x", "When:B's y is", "Then:NOT_TO_BE_FOUND"})
+        public String line;
+
+        Class<? extends Annotation> annotationClass;
+        String sentenceSub;
+
+        @Setup
+        public void setUp() {
+            String[] parts = line.split(":", 2);
+            annotationClass = parts[0].equals("Given") ? Given.class : parts[0].equals("When") ? When.class : Then.class;
+            sentenceSub = parts[1];
+        }
+    }
+
+    /** A step declared by the root of a hierarchy, looked up from a class depth levels below it **/
+    @State(Scope.Benchmark)
+    public static class Hierarchy {
+        @Param({"1", "2", "5", "10"})
+        public int depth;
+
+        Class<?> testClass;
+
+        @Setup
+        public void setUp() {
+            testClass = LEVELS[depth - 1];
+        }
+    }
+
+    @Benchmark
+    public Method storyTestHierarchy(StoryTestLine line) throws Throwable {
+        return Internals.findMethodByAnnotation(StoryTest.class, line.annotationClass, line.sentenceSub);
+    }
+
+    @Benchmark
+    public Method deepHierarchy(Hierarchy hierarchy) throws Throwable {
+        return Internals.findMethodByAnnotation(hierarchy.testClass, Given.class, "step at level 0");
+    }
+}
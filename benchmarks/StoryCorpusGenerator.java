@@ -0,0 +1,411 @@
+package benchmarks;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates step classes and matching stories far bigger than the ones in the
+ * tests package, so benchmarks and stress tests can sweep the number of steps,
+ * the depth of the inheritance tree, the shape of the nested classes tree, the
+ * length of the stories and their failure rate. Everything is derived from the
+ * seed, so the same settings always generate the same corpus.
+ * <p>
+ * The generated classes (in package "generated") are:
+ * <ul>
+ * <li>Level0 ... Level{depth-1}: a chain of abstract classes, each extending the
+ * previous one and declaring stepsPerClass Given, When and Then steps. Every level
+ * also re-declares the "shared" steps, and only the most derived declaration works,
+ * so resolving a shadowed step to an ancestor makes the story fail.</li>
+ * <li>Steps: the concrete test class, extending the deepest level and holding the state.</li>
+ * <li>Nested: the root of a tree of static nested classes, nestedFanOut classes per
+ * class and nestedDepth levels deep, each with its own Given, When and Then steps.</li>
+ * </ul>
+ * All steps take Integer parameters. A When sets the state, a Given sets it as well,
+ * and a Then compares it with its parameter.
+ */
+public final class StoryCorpusGenerator {
+
+    public static final String PACKAGE = "generated";
+
+    private final long seed;
+    private int stepsPerClass = 10;
+    private int hierarchyDepth = 3;
+    private int nestedFanOut = 2;
+    private int nestedDepth = 2;
+
+    public StoryCorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /** Sets the number of Given, When and Then steps (each) declared by every level **/
+    public StoryCorpusGenerator stepsPerClass(int stepsPerClass) {
+        if (stepsPerClass < 1) throw new IllegalArgumentException();
+        this.stepsPerClass = stepsPerClass;
+        return this;
+    }
+
+    /** Sets the number of levels in the inheritance tree of Steps **/
+    public StoryCorpusGenerator hierarchyDepth(int hierarchyDepth) {
+        if (hierarchyDepth < 1) throw new IllegalArgumentException();
+        this.hierarchyDepth = hierarchyDepth;
+        return this;
+    }
+
+    /** Sets the number of nested classes in every class of the Nested tree **/
+    public StoryCorpusGenerator nestedFanOut(int nestedFanOut) {
+        if (nestedFanOut < 1) throw new IllegalArgumentException();
+        this.nestedFanOut = nestedFanOut;
+        return this;
+    }
+
+    /** Sets the number of levels of the Nested tree, below its root **/
+    public StoryCorpusGenerator nestedDepth(int nestedDepth) {
+        if (nestedDepth < 0) throw new IllegalArgumentException();
+        this.nestedDepth = nestedDepth;
+        return this;
+    }
+
+    /** A generated story, with the results running it is expected to give **/
+    public static final class GeneratedStory {
+        private final String text;
+        private final int numLines;
+        private final int numFails;
+        private final String firstFailedSentence;
+
+        GeneratedStory(String text, int numLines, int numFails, String firstFailedSentence) {
+            this.text = text;
+            this.numLines = numLines;
+            this.numFails = numFails;
+            this.firstFailedSentence = firstFailedSentence;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getNumLines() {
+            return numLines;
+        }
+
+        /** Returns the number of Then sentences that are expected to fail **/
+        public int getNumFail() {
+            return numFails;
+        }
+
+        /** Returns the first Then sentence expected to fail, or null if the story should pass **/
+        public String getFirstFailedSentence() {
+            return firstFailedSentence;
+        }
+    }
+
+    // ---------------------------------------------------------------- sources
+
+    private static String levelName(int level) {
+        return "Level" + level;
+    }
+
+    /** Returns the sources of all the generated classes, by fully qualified class name **/
+    public Map<String, String> generateSources() {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (int level = 0; level < hierarchyDepth; level++) {
+            sources.put(PACKAGE + "." + levelName(level), levelSource(level));
+        }
+        sources.put(PACKAGE + ".Steps", stepsSource());
+        sources.put(PACKAGE + ".Nested", nestedSource());
+        return sources;
+    }
+
+    private static void header(StringBuilder out) {
+        out.append("package ").append(PACKAGE).append(";\n\n")
+                .append("import org.junit.ComparisonFailure;\n")
+                .append("import solution.Given;\n")
+                .append("import solution.Then;\n")
+                .append("import solution.When;\n\n");
+    }
+
+    private static void steps(StringBuilder out, String indent, String prefix, String methodPrefix) {
+        out.append(indent).append("@Given(\"").append(prefix).append(" value is &v\")\n")
+                .append(indent).append("public void ").append(methodPrefix).append("Given(Integer v) {\n")
+                .append(indent).append("    set(v);\n")
+                .append(indent).append("}\n\n");
+        out.append(indent).append("@When(\"").append(prefix).append(" sets &n\")\n")
+                .append(indent).append("public void ").append(methodPrefix).append("When(Integer n) {\n")
+                .append(indent).append("    set(n);\n")
+                .append(indent).append("}\n\n");
+        out.append(indent).append("@Then(\"").append(prefix).append(" value is &v\")\n")
+                .append(indent).append("public void ").append(methodPrefix).append("Then(Integer v) {\n")
+                .append(indent).append("    check(v);\n")
+                .append(indent).append("}\n\n");
+    }
+
+    private static void stateMethods(StringBuilder out, String indent) {
+        out.append(indent).append("private int value;\n\n")
+                .append(indent).append("protected int get() {\n")
+                .append(indent).append("    return value;\n")
+                .append(indent).append("}\n\n")
+                .append(indent).append("protected void set(int value) {\n")
+                .append(indent).append("    this.value = value;\n")
+                .append(indent).append("}\n\n");
+        checkMethod(out, indent);
+    }
+
+    private static void checkMethod(StringBuilder out, String indent) {
+        out.append(indent).append("protected void check(int expected) {\n")
+                .append(indent).append("    if (get() != expected) throw new ComparisonFailure(null, ")
+                .append("String.valueOf(expected), String.valueOf(get()));\n")
+                .append(indent).append("}\n\n");
+    }
+
+    private String levelSource(int level) {
+        StringBuilder out = new StringBuilder();
+        header(out);
+        out.append("public abstract class ").append(levelName(level));
+        if (level > 0) out.append(" extends ").append(levelName(level - 1));
+        out.append(" {\n\n");
+        if (level == 0) {
+            out.append("    protected abstract int get();\n\n")
+                    .append("    protected abstract void set(int value);\n\n");
+            checkMethod(out, "    ");
+        }
+        for (int step = 0; step < stepsPerClass; step++) {
+            steps(out, "    ", "level " + level + " step " + step, "l" + level + "s" + step);
+        }
+        // The shared steps: only the deepest level's declaration may ever be invoked.
+        boolean deepest = level == hierarchyDepth - 1;
+        String body = deepest ? "set(v);" : "throw new IllegalStateException(\"Shadowed step invoked\");";
+        out.append("    @Given(\"shared value is &v\")\n")
+                .append("    public void sharedGiven").append(level).append("(Integer v) {\n")
+                .append("        ").append(body).append("\n")
+                .append("    }\n\n");
+        out.append("    @When(\"shared sets &v\")\n")
+                .append("    public void sharedWhen").append(level).append("(Integer v) {\n")
+                .append("        ").append(body).append("\n")
+                .append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private String stepsSource() {
+        StringBuilder out = new StringBuilder();
+        header(out);
+        out.append("public class Steps extends ").append(levelName(hierarchyDepth - 1)).append(" {\n\n")
+                .append("    private int value;\n\n")
+                .append("    public Steps() {\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected int get() {\n")
+                .append("        return value;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected void set(int value) {\n")
+                .append("        this.value = value;\n")
+                .append("    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    private String nestedSource() {
+        StringBuilder out = new StringBuilder();
+        header(out);
+        out.append("public class Nested {\n\n");
+        nestedChildren(out, "    ", "", nestedDepth);
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void nestedChildren(StringBuilder out, String indent, String path, int depth) {
+        if (depth == 0) return;
+        for (int child = 0; child < nestedFanOut; child++) {
+            String childPath = path.isEmpty() ? String.valueOf(child) : path + "_" + child;
+            out.append(indent).append("public static class N").append(childPath).append(" {\n\n");
+            String inner = indent + "    ";
+            stateMethods(out, inner);
+            steps(out, inner, "nested " + childPath, "n");
+            nestedChildren(out, inner, childPath, depth - 1);
+            out.append(indent).append("}\n\n");
+        }
+    }
+
+    /**
+     * Returns the paths of all the classes in the Nested tree, in the order
+     * testOnNestedClasses searches them (e.g. "0", "0_0", "0_1", "1", ...).
+     */
+    public List<String> nestedPaths() {
+        List<String> paths = new ArrayList<>();
+        nestedPaths(paths, "", nestedDepth);
+        return paths;
+    }
+
+    private void nestedPaths(List<String> paths, String path, int depth) {
+        if (depth == 0) return;
+        for (int child = 0; child < nestedFanOut; child++) {
+            String childPath = path.isEmpty() ? String.valueOf(child) : path + "_" + child;
+            paths.add(childPath);
+            nestedPaths(paths, childPath, depth - 1);
+        }
+    }
+
+    // ---------------------------------------------------------------- stories
+
+    /**
+     * Returns a story for the Steps class: a Given followed by pairs When/Then pairs,
+     * each using steps picked at random from all levels (and sometimes the shared,
+     * shadowed ones). Every Then fails with probability failureRate.
+     */
+    public GeneratedStory story(int pairs, double failureRate, long storySeed) {
+        Random random = new Random(seed * 31 + storySeed);
+        StoryBuilder builder = new StoryBuilder();
+        builder.line("Given " + randomPrefix(random) + " value is " + random.nextInt(1000), false);
+        for (int i = 0; i < pairs; i++) {
+            int value = random.nextInt(1000);
+            if (random.nextInt(10) == 0) {
+                builder.line("When shared sets " + value, false);
+            } else {
+                builder.line("When " + randomPrefix(random) + " sets " + value, false);
+            }
+            boolean fail = random.nextDouble() < failureRate;
+            builder.line("Then " + randomPrefix(random) + " value is " + (fail ? value + 1 : value), fail);
+        }
+        return builder.build();
+    }
+
+    private String randomPrefix(Random random) {
+        return "level " + random.nextInt(hierarchyDepth) + " step " + random.nextInt(stepsPerClass);
+    }
+
+    /**
+     * Returns a story for the class at the given path of the Nested tree
+     * (see nestedPaths()), to be run with testOnNestedClasses on Nested.
+     */
+    public GeneratedStory nestedStory(String path, int pairs, double failureRate, long storySeed) {
+        Random random = new Random(seed * 31 + storySeed);
+        StoryBuilder builder = new StoryBuilder();
+        String prefix = "nested " + path;
+        builder.line("Given " + prefix + " value is " + random.nextInt(1000), false);
+        for (int i = 0; i < pairs; i++) {
+            int value = random.nextInt(1000);
+            builder.line("When " + prefix + " sets " + value, false);
+            boolean fail = random.nextDouble() < failureRate;
+            builder.line("Then " + prefix + " value is " + (fail ? value + 1 : value), fail);
+        }
+        return builder.build();
+    }
+
+    private static final class StoryBuilder {
+        private final StringBuilder text = new StringBuilder();
+        private int numLines;
+        private int numFails;
+        private String firstFailedSentence;
+
+        void line(String sentence, boolean fails) {
+            if (numLines++ > 0) text.append('\n');
+            text.append(sentence);
+            if (fails && numFails++ == 0) firstFailedSentence = sentence;
+        }
+
+        GeneratedStory build() {
+            return new GeneratedStory(text.toString(), numLines, numFails, firstFailedSentence);
+        }
+    }
+
+    // ---------------------------------------------------------------- compiling
+
+    /** The compiled corpus: the generated classes, loaded by their own class loader **/
+    public static final class CompiledCorpus {
+        private final ClassLoader loader;
+
+        CompiledCorpus(ClassLoader loader) {
+            this.loader = loader;
+        }
+
+        /** Returns a generated class by its simple name (e.g. "Steps", "Level0", "Nested") **/
+        public Class<?> getClass(String simpleName) throws ClassNotFoundException {
+            return Class.forName(PACKAGE + "." + simpleName, true, loader);
+        }
+
+        public Class<?> getStepsClass() throws ClassNotFoundException {
+            return getClass("Steps");
+        }
+
+        public Class<?> getNestedClass() throws ClassNotFoundException {
+            return getClass("Nested");
+        }
+    }
+
+    /**
+     * Compiles the generated sources in memory, against the current class path,
+     * and loads them with a new class loader.
+     *
+     * @throws IllegalStateException if no compiler is available (e.g. on a JRE) or compiling fails.
+     */
+    public CompiledCorpus compile() {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) throw new IllegalStateException("No Java compiler available");
+        List<JavaFileObject> units = new ArrayList<>();
+        for (Map.Entry<String, String> source : generateSources().entrySet()) {
+            units.add(new SourceFile(source.getKey(), source.getValue()));
+        }
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(null, null, null);
+        ForwardingJavaFileManager<StandardJavaFileManager> fileManager =
+                new ForwardingJavaFileManager<StandardJavaFileManager>(standard) {
+                    @Override
+                    public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                               JavaFileObject.Kind kind, FileObject sibling) {
+                        return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                            @Override
+                            public OutputStream openOutputStream() {
+                                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                                classes.put(className, bytes);
+                                return bytes;
+                            }
+                        };
+                    }
+                };
+        StringWriter errors = new StringWriter();
+        List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-nowarn");
+        if (!compiler.getTask(errors, fileManager, null, options, null, units).call()) {
+            throw new IllegalStateException("Generated sources did not compile:\n" + errors);
+        }
+        ClassLoader loader = new ClassLoader(StoryCorpusGenerator.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                ByteArrayOutputStream bytes = classes.get(name);
+                if (bytes == null) throw new ClassNotFoundException(name);
+                byte[] b = bytes.toByteArray();
+                return defineClass(name, b, 0, b.length);
+            }
+        };
+        return new CompiledCorpus(loader);
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import provided.StoryTestException;
+import solution.CompiledStory;
+import solution.InvocationMode;
+import solution.StoryCompiler;
+import solution.StoryTesterImpl;
+import tests.CatStory;
+import tests.DogStoryDerivedTest;
+import tests.StoryTest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full runs of testOnInheritanceTree on the stories of the tests package.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoryRunBenchmark {
+
+    /** The short stories of the tests, as they are **/
+    @State(Scope.Benchmark)
+    public static class TestStories {
+        @Param({"METHOD_HANDLE", "REFLECTION"})
+        public InvocationMode mode;
+
+        StoryTesterImpl tester;
+
+        final String dogStory = "Given a Dog of age 6\n"
+                + "When the dog is not taken out for a walk, and the number of hours is 15\n"
+                + "When the house is cleaned, and the number of hours is 11\n"
+                + "Then the house condition is clean";
+
+        /** Walks up StoryTest's hierarchy and fails (and restores) once **/
+        final String storyTestStory = "Given A of x 4 and of z Word\n"
+                + "When A's conditional x is 50\n"
+                + "Then A's x is 50\n"
+                + "When A's y is false\n"
+                + "When A's z is WORD\n"
+                + "Then A's z is Word\n"
+                + "When A's y is false\n"
+                + "Then A's z is Word";
+
+        @Setup
+        public void setUp() {
+            tester = new StoryTesterImpl().withInvocationMode(mode);
+        }
+    }
+
+    /** A Cat story of the given number of When/Then pairs, every tenth Then failing **/
+    @State(Scope.Benchmark)
+    public static class LongCatStory {
+        @Param({"1", "10", "100", "1000"})
+        public int pairs;
+
+        @Param({"METHOD_HANDLE", "REFLECTION"})
+        public InvocationMode mode;
+
+        StoryTesterImpl tester;
+        String story;
+        CompiledStory compiled;
+
+        @Setup
+        public void setUp() {
+            tester = new StoryTesterImpl().withInvocationMode(mode);
+            StringBuilder builder = new StringBuilder("Given a Cat of age 6");
+            for (int i = 0; i < pairs; i++) {
+                builder.append("\nWhen the Cat did kaki of size ").append(i)
+                        .append("\nThen the kaki size is ").append(i % 10 == 9 ? -1 : i);
+            }
+            story = builder.toString();
+            compiled = StoryCompiler.compile(story);
+        }
+    }
+
+    private static int run(StoryTesterImpl tester, String story, Class<?> testClass) throws Exception {
+        try {
+            tester.testOnInheritanceTree(story, testClass);
+            return 0;
+        } catch (StoryTestException e) {
+            return e.getNumFail();
+        }
+    }
+
+    @Benchmark
+    public int dogStory(TestStories stories) throws Exception {
+        return run(stories.tester, stories.dogStory, DogStoryDerivedTest.class);
+    }
+
+    @Benchmark
+    public int storyTestStory(TestStories stories) throws Exception {
+        return run(stories.tester, stories.storyTestStory, StoryTest.class);
+    }
+
+    @Benchmark
+    public int longCatStory(LongCatStory story) throws Exception {
+        return run(story.tester, story.story, CatStory.class);
+    }
+
+    @Benchmark
+    public int longCompiledCatStory(LongCatStory story) throws Exception {
+        try {
+            story.tester.testOnInheritanceTree(story.compiled, CatStory.class);
+            return 0;
+        } catch (StoryTestException e) {
+            return e.getNumFail();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * JMH benchmarks of StoryTesterImpl: step resolution, step invocation, backing
+ * up and restoring instances, full story runs and the nested classes search.
+ * <p>
+ * The benchmarks are compiled with the rest of the sources, with jmh-core on the
+ * classpath and jmh-generator-annprocess as an annotation processor, and run with
+ * {@code java -cp <classes and jmh jars> org.openjdk.jmh.Main [regexp] [options]}.
+ * Every benchmark has @Param sizes, so scaling curves can be read from a single run.
+ */
+package benchmarks;
@@ -0,0 +1,65 @@
+package solution;
+
+/**
+ * A reusable view of a range of characters in another CharSequence.
+ * Its hashCode is computed exactly like String's and it equals any
+ * CharSequence with the same characters, so it can be used to look up
+ * String keys in a HashMap without copying the characters into a new String.
+ * The view is mutable - it must not be stored as a key itself.
+ */
+final class CharSpan implements CharSequence {
+    private CharSequence source;
+    private int start;
+    private int end;
+
+    CharSpan set(CharSequence source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        return source.subSequence(start + from, start + to);
+    }
+
+    /** Returns true if this span holds exactly the characters of word **/
+    boolean contentEquals(CharSequence word) {
+        int length = length();
+        if (word.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(start + i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CharSequence && contentEquals((CharSequence) o);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + source.charAt(i);
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return source.subSequence(start, end).toString();
+    }
+}
@@ -0,0 +1,32 @@
+package solution;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, pre-parsed story. Compiling a story once with
+ * StoryCompiler lets it be run many times, on many classes, without
+ * splitting and parsing its text again.
+ */
+public final class CompiledStory {
+    private final List<StoryLine> lines;
+
+    CompiledStory(List<StoryLine> lines) {
+        this.lines = Collections.unmodifiableList(lines);
+    }
+
+    /** Returns the lines of the story, in order **/
+    public List<StoryLine> getLines() {
+        return lines;
+    }
+
+    /** Returns the number of lines in the story **/
+    public int size() {
+        return lines.size();
+    }
+
+    /** Returns a cursor over the lines of this story **/
+    StoryCursor cursor() {
+        return new StoryLineCursor(lines);
+    }
+}
@@ -0,0 +1,106 @@
+package solution;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * How the field values of a single runtime class are backed up: cloned if the
+ * class is Cloneable, copied if it has a copy constructor, or shared otherwise.
+ * The decision (and the clone method or copy constructor) is resolved once per
+ * class by scanning its declared members, so backing up never has to probe
+ * for methods by catching NoSuchMethodException.
+ */
+final class CopyStrategy {
+
+    private static final ClassValue<CopyStrategy> STRATEGIES = new ClassValue<CopyStrategy>() {
+        @Override
+        protected CopyStrategy computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private static final MethodType COPY_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    enum Kind { CLONE, COPY_CONSTRUCTOR, SHARE, NOT_CLONEABLE }
+
+    final Kind kind;
+    /** The clone method or copy constructor, as an (Object)Object handle **/
+    private final MethodHandle copier;
+
+    private CopyStrategy(Kind kind, MethodHandle copier) {
+        this.kind = kind;
+        this.copier = copier;
+    }
+
+    /** Returns the (cached) strategy for values whose runtime class is c **/
+    static CopyStrategy of(Class<?> c) {
+        return STRATEGIES.get(c);
+    }
+
+    private static CopyStrategy resolve(Class<?> c) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            if (Cloneable.class.isAssignableFrom(c)) {
+                // clone() is protected, so look for the closest declaration below Object.
+                Method clone = findCloneMethod(c);
+                if (clone == null) return new CopyStrategy(Kind.NOT_CLONEABLE, null);
+                clone.setAccessible(true);
+                return new CopyStrategy(Kind.CLONE, lookup.unreflect(clone).asType(COPY_TYPE));
+            }
+            Constructor<?> copyConstructor = findCopyConstructor(c);
+            if (copyConstructor != null) {
+                copyConstructor.setAccessible(true);
+                return new CopyStrategy(Kind.COPY_CONSTRUCTOR, lookup.unreflectConstructor(copyConstructor).asType(COPY_TYPE));
+            }
+            return new CopyStrategy(Kind.SHARE, null);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot back up values of " + c, e);
+        }
+    }
+
+    /** Returns the clone() declared by c or its closest ancestor below Object, or null if there is none **/
+    private static Method findCloneMethod(Class<?> c) {
+        for (; c != null && c != Object.class; c = c.getSuperclass()) {
+            Method found = null;
+            for (Method method : c.getDeclaredMethods()) {
+                if (!method.getName().equals("clone") || method.getParameterCount() != 0) continue;
+                // Prefer the covariant override over its bridge method, like getDeclaredMethod does.
+                if (found == null || found.getReturnType().isAssignableFrom(method.getReturnType())) found = method;
+            }
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    private static Constructor<?> findCopyConstructor(Class<?> c) {
+        for (Constructor<?> constructor : c.getDeclaredConstructors()) {
+            Class<?>[] types = constructor.getParameterTypes();
+            if (types.length == 1 && types[0] == c) return constructor;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the backup of value, whose runtime class must be the one this strategy
+     * was resolved for. Exceptions thrown by clone() or the copy constructor are
+     * wrapped in an InvocationTargetException, as reflection would.
+     */
+    Object copy(Object value) throws Exception {
+        switch (kind) {
+            case SHARE:
+                return value;
+            case NOT_CLONEABLE:
+                throw new RuntimeException("This cloneable class is not cloneable!");
+            default:
+                try {
+                    return copier.invokeExact(value);
+                } catch (Throwable t) {
+                    throw new InvocationTargetException(t);
+                }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package solution;
+
+/**
+ * How StoryTesterImpl creates the exceptions it throws for failed stories and missing steps.
+ */
+public enum ExceptionMode {
+    /** Every exception fills in its stack trace, as the tester originally did. **/
+    STACK_TRACES,
+    /**
+     * The exceptions are created without a stack trace, which is most of the cost of
+     * throwing them. They are still new instances of the usual exception classes.
+     */
+    STACKLESS
+}
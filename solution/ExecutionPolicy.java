@@ -0,0 +1,209 @@
+package solution;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+
+/**
+ * When a run may stop before the end of its story: after a number of failed Then
+ * sentences, or once a wall-clock or CPU time budget is spent. These limits are checked
+ * between lines, so a single step is never interrupted. A run that stops reports how
+ * many lines ran, and why it stopped, in its StoryResult. The test methods of StoryTesterImpl
+ * throw a StoryBudgetExceededException for a run stopped by a budget before any failure.
+ * <p>
+ * Step and story timeouts, on the other hand, are enforced while a step runs: the shared
+ * StoryWatchdog interrupts the thread of a step that runs past its deadline, and the run
+ * stops at that step. By default a step that ignores the interrupt (a busy loop, or blocking
+ * I/O) still runs to its end, and is then reported as timed out; a policy
+ * withAbandonedTimedOutSteps() runs the steps on a worker thread instead, and the run stops
+ * at the deadline whatever the step does.
+ * <p>
+ * Policies are immutable; the with* methods return a new policy.
+ */
+public final class ExecutionPolicy {
+
+    /**
+     * The CPU time of the thread is read after a line only if this much wall-clock time passed since
+     * it was last read, as reading it is not free. Counting lines instead would never check a short
+     * story, however slow its steps are.
+     */
+    static final long CPU_CHECK_INTERVAL_NANOS = 1_000_000L;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** Runs every story to its end, as the tester originally did **/
+    public static final ExecutionPolicy RUN_TO_END = new ExecutionPolicy(Integer.MAX_VALUE, 0, 0, 0, 0, false);
+
+    private final int maxFailures;
+    /** 0 if there is no budget **/
+    private final long wallClockBudgetNanos;
+    /** 0 if there is no budget **/
+    private final long cpuBudgetNanos;
+    /** 0 if there is no timeout **/
+    private final long stepTimeoutNanos;
+    /** 0 if there is no timeout **/
+    private final long storyTimeoutNanos;
+    private final boolean abandonTimedOutSteps;
+
+    private ExecutionPolicy(int maxFailures, long wallClockBudgetNanos, long cpuBudgetNanos,
+                            long stepTimeoutNanos, long storyTimeoutNanos, boolean abandonTimedOutSteps) {
+        this.maxFailures = maxFailures;
+        this.wallClockBudgetNanos = wallClockBudgetNanos;
+        this.cpuBudgetNanos = cpuBudgetNanos;
+        this.stepTimeoutNanos = stepTimeoutNanos;
+        this.storyTimeoutNanos = storyTimeoutNanos;
+        this.abandonTimedOutSteps = abandonTimedOutSteps;
+    }
+
+    /** Returns a policy that stops a run at its first failed Then sentence **/
+    public static ExecutionPolicy failFast() {
+        return stopAfterFailures(1);
+    }
+
+    /**
+     * Returns a policy that stops a run once maxFailures Then sentences failed.
+     *
+     * @throws IllegalArgumentException if maxFailures is not positive.
+     */
+    public static ExecutionPolicy stopAfterFailures(int maxFailures) {
+        if (maxFailures <= 0) throw new IllegalArgumentException();
+        return new ExecutionPolicy(maxFailures, 0, 0, 0, 0, false);
+    }
+
+    /**
+     * Returns this policy, also stopping a run once it ran for longer than budget.
+     *
+     * @throws IllegalArgumentException if budget is null or not positive.
+     */
+    public ExecutionPolicy withWallClockBudget(Duration budget) {
+        return new ExecutionPolicy(maxFailures, toNanos(budget), cpuBudgetNanos, stepTimeoutNanos, storyTimeoutNanos,
+                abandonTimedOutSteps);
+    }
+
+    /**
+     * Returns this policy, also stopping a run once its thread used more CPU time than budget.
+     * The CPU time is checked after a line at most once a millisecond (of wall-clock time),
+     * so a run may go a little over budget.
+     *
+     * @throws IllegalArgumentException if budget is null or not positive.
+     * @throws UnsupportedOperationException if the JVM cannot measure the CPU time of a thread.
+     * @throws IllegalStateException if this policy abandons timed out steps.
+     */
+    public ExecutionPolicy withCpuBudget(Duration budget) {
+        if (!THREADS.isCurrentThreadCpuTimeSupported()) throw new UnsupportedOperationException();
+        if (abandonTimedOutSteps) throw new IllegalStateException("A CPU budget cannot measure steps run on worker threads");
+        return new ExecutionPolicy(maxFailures, wallClockBudgetNanos, toNanos(budget), stepTimeoutNanos, storyTimeoutNanos,
+                abandonTimedOutSteps);
+    }
+
+    /**
+     * Returns this policy, also interrupting and stopping a run at a step that runs for longer than timeout.
+     * Timeouts are detected within about StoryWatchdog.TICK_NANOS.
+     *
+     * @throws IllegalArgumentException if timeout is null or not positive.
+     */
+    public ExecutionPolicy withStepTimeout(Duration timeout) {
+        return new ExecutionPolicy(maxFailures, wallClockBudgetNanos, cpuBudgetNanos, toNanos(timeout), storyTimeoutNanos,
+                abandonTimedOutSteps);
+    }
+
+    /**
+     * Returns this policy, also stopping a run that takes longer than timeout - interrupting
+     * the step it is running at that time, if any.
+     *
+     * @throws IllegalArgumentException if timeout is null or not positive.
+     */
+    public ExecutionPolicy withStoryTimeout(Duration timeout) {
+        return new ExecutionPolicy(maxFailures, wallClockBudgetNanos, cpuBudgetNanos, stepTimeoutNanos, toNanos(timeout),
+                abandonTimedOutSteps);
+    }
+
+    /**
+     * Returns this policy, also running every step of a run that has a step or story timeout on a
+     * worker thread, while the thread of the run waits for it. A step that times out is interrupted
+     * and abandoned: the run stops at once, even if the step ignores the interrupt, and the step is
+     * left to end on its own (it may still change the test instance, which the run no longer uses).
+     * Handing every step to another thread costs some microseconds, and steps that depend on the
+     * thread they run on (thread locals, for instance) see a worker thread. Has no effect on a
+     * policy without timeouts.
+     *
+     * @throws IllegalStateException if this policy has a CPU budget, which is measured on the thread of the run.
+     */
+    public ExecutionPolicy withAbandonedTimedOutSteps() {
+        if (cpuBudgetNanos != 0) throw new IllegalStateException("A CPU budget cannot measure steps run on worker threads");
+        return new ExecutionPolicy(maxFailures, wallClockBudgetNanos, cpuBudgetNanos, stepTimeoutNanos, storyTimeoutNanos,
+                true);
+    }
+
+    private static long toNanos(Duration budget) {
+        if (budget == null || budget.isNegative() || budget.isZero()) throw new IllegalArgumentException();
+        return budget.toNanos();
+    }
+
+    /** Returns the number of failed Then sentences that stops a run (Integer.MAX_VALUE if unlimited) **/
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    /** Returns the wall-clock budget of a run, or null if there is none **/
+    public Duration getWallClockBudget() {
+        return wallClockBudgetNanos == 0 ? null : Duration.ofNanos(wallClockBudgetNanos);
+    }
+
+    /** Returns the CPU time budget of a run, or null if there is none **/
+    public Duration getCpuBudget() {
+        return cpuBudgetNanos == 0 ? null : Duration.ofNanos(cpuBudgetNanos);
+    }
+
+    /** Returns the step timeout, or null if there is none **/
+    public Duration getStepTimeout() {
+        return stepTimeoutNanos == 0 ? null : Duration.ofNanos(stepTimeoutNanos);
+    }
+
+    /** Returns the story timeout, or null if there is none **/
+    public Duration getStoryTimeout() {
+        return storyTimeoutNanos == 0 ? null : Duration.ofNanos(storyTimeoutNanos);
+    }
+
+    /** Returns true if timed out steps are abandoned, see withAbandonedTimedOutSteps() **/
+    public boolean abandonsTimedOutSteps() {
+        return abandonTimedOutSteps;
+    }
+
+    /** Returns a watch for a run on the current thread, or null if this policy has no timeouts **/
+    StoryWatchdog.Watch watch() {
+        if (stepTimeoutNanos == 0 && storyTimeoutNanos == 0) return null;
+        return StoryWatchdog.watch(stepTimeoutNanos, storyTimeoutNanos,
+                abandonTimedOutSteps);
+    }
+
+    /** Returns true if this policy has any budget, and a run must measure its time **/
+    boolean hasBudget() {
+        return wallClockBudgetNanos != 0 || cpuBudgetNanos != 0;
+    }
+
+    /** Returns true if this policy has a CPU budget **/
+    boolean hasCpuBudget() {
+        return cpuBudgetNanos != 0;
+    }
+
+    static long currentThreadCpuTime() {
+        return THREADS.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Returns why a run should stop now, or null if it may go on.
+     * startNanos and startCpuNanos are the wall-clock and CPU times the run started at;
+     * the CPU budget is only checked if readCpuTime is set (see CPU_CHECK_INTERVAL_NANOS).
+     */
+    StopReason check(int numFails, long startNanos, long startCpuNanos, boolean readCpuTime) {
+        if (numFails >= maxFailures) return StopReason.FAILURES;
+        if (wallClockBudgetNanos != 0 && System.nanoTime() - startNanos > wallClockBudgetNanos) {
+            return StopReason.WALL_CLOCK_BUDGET;
+        }
+        if (cpuBudgetNanos != 0 && readCpuTime && currentThreadCpuTime() - startCpuNanos > cpuBudgetNanos) {
+            return StopReason.CPU_BUDGET;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+package solution;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every Then sentence that failed in a run of a story, in order: the index of its line
+ * in the story (counting from 0), the expected value and the actual value.
+ * The failures are kept in parallel int arrays, and every distinct expected or actual
+ * value is stored once in a shared string table, so even a story with many failures
+ * costs a few arrays and not an object per failure.
+ */
+public final class FailedThens {
+    private static final int NONE = -1;
+
+    private int[] lines = new int[4];
+    private int[] expected = new int[4];
+    private int[] actual = new int[4];
+    private int size;
+
+    private String[] strings = new String[4];
+    private int numStrings;
+    /** Only used while recording, to find the index of a string in the table **/
+    private Map<String, Integer> stringIndexes;
+
+    FailedThens() {
+    }
+
+    /** Returns a copy of this record, which can go on recording independently of it **/
+    FailedThens copy() {
+        FailedThens copy = new FailedThens();
+        copy.lines = lines.clone();
+        copy.expected = expected.clone();
+        copy.actual = actual.clone();
+        copy.size = size;
+        copy.strings = strings.clone();
+        copy.numStrings = numStrings;
+        // The index of the copy is rebuilt when it records its next value.
+        return copy;
+    }
+
+    /** Records a failure. expected and actual may be null, if the step did not report them **/
+    void add(int line, String expectedValue, String actualValue) {
+        if (size == lines.length) {
+            lines = Arrays.copyOf(lines, size * 2);
+            expected = Arrays.copyOf(expected, size * 2);
+            actual = Arrays.copyOf(actual, size * 2);
+        }
+        lines[size] = line;
+        expected[size] = intern(expectedValue);
+        actual[size] = intern(actualValue);
+        size++;
+    }
+
+    private int intern(String value) {
+        if (value == null) return NONE;
+        if (stringIndexes == null) {
+            stringIndexes = new HashMap<>();
+            for (int i = 0; i < numStrings; i++) stringIndexes.put(strings[i], i);
+        }
+        Integer index = stringIndexes.get(value);
+        if (index != null) return index;
+        if (numStrings == strings.length) strings = Arrays.copyOf(strings, numStrings * 2);
+        strings[numStrings] = value;
+        stringIndexes.put(value, numStrings);
+        return numStrings++;
+    }
+
+    /** Returns the number of failed Then sentences **/
+    public int size() {
+        return size;
+    }
+
+    /** Returns the index in the story (counting from 0) of the line of the i'th failure **/
+    public int getLineIndex(int i) {
+        checkIndex(i);
+        return lines[i];
+    }
+
+    /** Returns the expected value from the story of the i'th failure, or null if unknown **/
+    public String getExpected(int i) {
+        checkIndex(i);
+        return string(expected[i]);
+    }
+
+    /** Returns the actual value of the i'th failure, or null if unknown **/
+    public String getActual(int i) {
+        checkIndex(i);
+        return string(actual[i]);
+    }
+
+    /** Returns the number of distinct expected and actual values of all failures **/
+    public int getNumDistinctValues() {
+        return numStrings;
+    }
+
+    private String string(int index) {
+        return index == NONE ? null : strings[index];
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Failure " + i + " of " + size);
+    }
+}
@@ -0,0 +1,118 @@
+package solution;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An opt-in cache of test instances right after the Given lines a story starts with.
+ * A tester with a cache looks up (test class, Given lines) before running a story;
+ * on a hit it starts from a copy of the cached instance instead of creating one and
+ * running the Given steps, and on a miss it caches a copy of the instance once the
+ * Given steps passed. One cache may be shared by many testers and threads.
+ * <p>
+ * Copies are made with the backup policy of StoryTesterImpl.backUpInstance (clone, copy
+ * constructor, or share), but over every instance field of the class hierarchy, and the
+ * enclosing instances of member classes are copied the same way (see InstanceCopier.copyInstance).
+ * Only stories whose Given steps depend on nothing but their sentences, and whose fields are
+ * not shared, may use a cache.
+ * <p>
+ * The least recently used entry is evicted once the cache holds more than its budget of entries.
+ */
+public final class FixtureCache {
+
+    /** The test class and the sentences of the Given lines a story starts with **/
+    static final class Key {
+        private final Class<?> testClass;
+        private final String[] givens;
+        private final int hash;
+
+        Key(Class<?> testClass, String[] givens) {
+            this.testClass = testClass;
+            this.givens = givens;
+            this.hash = 31 * testClass.hashCode() + Arrays.hashCode(givens);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return testClass == other.testClass && Arrays.equals(givens, other.givens);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final int maxEntries;
+    /** Access ordered, so the eldest entry is the least recently used. Guarded by this **/
+    private final LinkedHashMap<Key, Object> fixtures;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache of up to maxEntries fixtures.
+     *
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     */
+    public FixtureCache(int maxEntries) {
+        if (maxEntries <= 0) throw new IllegalArgumentException();
+        this.maxEntries = maxEntries;
+        this.fixtures = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > FixtureCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** Returns a copy of the fixture cached for key, or null if there is none **/
+    Object get(Key key) throws Exception {
+        Object fixture;
+        synchronized (this) {
+            fixture = fixtures.get(key);
+            if (fixture == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        // A cached fixture is never changed, so it can be copied outside the lock.
+        return InstanceCopier.copyInstance(fixture);
+    }
+
+    /** Caches a copy of instance, the state of the test instance right after the Given lines of key **/
+    void put(Key key, Object instance) throws Exception {
+        Object fixture = InstanceCopier.copyInstance(instance);
+        synchronized (this) {
+            fixtures.put(key, fixture);
+        }
+    }
+
+    /** Returns the number of cached fixtures **/
+    public synchronized int size() {
+        return fixtures.size();
+    }
+
+    /** Returns the maximal number of cached fixtures **/
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /** Returns the number of stories that started from a cached fixture **/
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Returns the number of stories that started with Given lines, but found no cached fixture **/
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Removes every cached fixture **/
+    public synchronized void clear() {
+        fixtures.clear();
+    }
+}
@@ -0,0 +1,287 @@
+package solution;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies the declared fields of a single class between its instances, for
+ * backing up and restoring test instances. The fields are resolved once per
+ * class into MethodHandles, each of which reads a field of one instance and
+ * writes it into another (primitives are copied without boxing).
+ * Restoring only writes the fields whose value differs from the backup.
+ * Static final fields cannot change, and are never copied.
+ * <p>
+ * copyInstance and copyInstanceInto copy a whole instance instead: the instance
+ * fields of every class in its hierarchy, and its enclosing instances.
+ */
+final class InstanceCopier {
+
+    private static final ClassValue<InstanceCopier> COPIERS = new ClassValue<InstanceCopier>() {
+        @Override
+        protected InstanceCopier computeValue(Class<?> type) {
+            return new InstanceCopier(type);
+        }
+    };
+
+    /** The synthetic field holding the enclosing instance of a member class, or null **/
+    private static final ClassValue<Field> ENCLOSING_INSTANCE = new ClassValue<Field>() {
+        @Override
+        protected Field computeValue(Class<?> type) {
+            if (!type.isMemberClass() || Modifier.isStatic(type.getModifiers())) return null;
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isSynthetic() && field.getType() == type.getEnclosingClass()) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            }
+            return null;
+        }
+    };
+
+    private static final MethodType COPY_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType SAME_TYPE = MethodType.methodType(boolean.class, Object.class, Object.class);
+    private static final MethodHandle COPY_FIELD_VALUE;
+    /** (T, T)boolean for long (and the integral types that widen to it), boolean, float, double and Object **/
+    private static final MethodHandle SAME_LONG;
+    private static final MethodHandle SAME_BOOLEAN;
+    private static final MethodHandle SAME_FLOAT;
+    private static final MethodHandle SAME_DOUBLE;
+    private static final MethodHandle SAME_OBJECT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            COPY_FIELD_VALUE = lookup.findStatic(StoryTesterImpl.class, "copyFieldValue",
+                    MethodType.methodType(Object.class, Object.class));
+            SAME_LONG = lookup.findStatic(InstanceCopier.class, "same", MethodType.methodType(boolean.class, long.class, long.class));
+            SAME_BOOLEAN = lookup.findStatic(InstanceCopier.class, "same", MethodType.methodType(boolean.class, boolean.class, boolean.class));
+            SAME_FLOAT = lookup.findStatic(InstanceCopier.class, "same", MethodType.methodType(boolean.class, float.class, float.class));
+            SAME_DOUBLE = lookup.findStatic(InstanceCopier.class, "same", MethodType.methodType(boolean.class, double.class, double.class));
+            SAME_OBJECT = lookup.findStatic(InstanceCopier.class, "same", MethodType.methodType(boolean.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static boolean same(long a, long b) {
+        return a == b;
+    }
+
+    private static boolean same(boolean a, boolean b) {
+        return a == b;
+    }
+
+    private static boolean same(float a, float b) {
+        // Compares the bits, so a NaN is the same as itself and 0.0 differs from -0.0.
+        return Float.floatToRawIntBits(a) == Float.floatToRawIntBits(b);
+    }
+
+    private static boolean same(double a, double b) {
+        return Double.doubleToRawLongBits(a) == Double.doubleToRawLongBits(b);
+    }
+
+    private static boolean same(Object a, Object b) {
+        // A backed up reference is a copy unless its class can only be shared, so
+        // comparing identities is exact: an object that may have changed inside is never the same.
+        return a == b;
+    }
+
+    private static MethodHandle sameHandle(Class<?> type) {
+        if (type == boolean.class) return SAME_BOOLEAN;
+        if (type == float.class) return SAME_FLOAT;
+        if (type == double.class) return SAME_DOUBLE;
+        if (type.isPrimitive()) return SAME_LONG.asType(MethodType.methodType(boolean.class, type, type));
+        return SAME_OBJECT.asType(MethodType.methodType(boolean.class, type, type));
+    }
+
+    private final Class<?> c;
+    /** (Object destination, Object source)void handles that copy a field value as is **/
+    private final MethodHandle[] copiers;
+    /** (Object destination, Object source)void handles that copy a field value using the backup policy **/
+    private final MethodHandle[] backupCopiers;
+    /** The backupCopiers of the non-static fields **/
+    private final MethodHandle[] instanceCopiers;
+    /** The non-static fields that hold references **/
+    private final Field[] referenceFields;
+    /** (Object a, Object b)boolean handles that tell if a field has the same value in both instances **/
+    private final MethodHandle[] comparers;
+    /** Set if a field could not be resolved, and reported whenever the copier is used **/
+    private final RuntimeException error;
+
+    private InstanceCopier(Class<?> c) {
+        this.c = c;
+        List<Field> declared = new ArrayList<>();
+        for (Field field : c.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) declared.add(field);
+        }
+        Field[] fields = declared.toArray(new Field[0]);
+        MethodHandle[] copiers = new MethodHandle[fields.length];
+        MethodHandle[] backupCopiers = new MethodHandle[fields.length];
+        MethodHandle[] comparers = new MethodHandle[fields.length];
+        RuntimeException error = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            for (int i = 0; i < fields.length; i++) {
+                Field field = fields[i];
+                field.setAccessible(true);
+                MethodHandle getter = lookup.unreflectGetter(field);
+                MethodHandle setter = lookup.unreflectSetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                    setter = MethodHandles.dropArguments(setter, 0, Object.class);
+                }
+                Class<?> type = field.getType();
+                getter = getter.asType(MethodType.methodType(type, Object.class));
+                setter = setter.asType(MethodType.methodType(void.class, Object.class, type));
+                copiers[i] = MethodHandles.filterArguments(setter, 1, getter).asType(COPY_TYPE);
+                comparers[i] = MethodHandles.filterArguments(sameHandle(type), 0, getter, getter).asType(SAME_TYPE);
+                if (type.isPrimitive()) {
+                    backupCopiers[i] = copiers[i];
+                } else {
+                    MethodHandle copyingGetter = MethodHandles.filterReturnValue(
+                            getter.asType(MethodType.methodType(Object.class, Object.class)), COPY_FIELD_VALUE);
+                    backupCopiers[i] = MethodHandles.filterArguments(
+                            setter.asType(COPY_TYPE), 1, copyingGetter).asType(COPY_TYPE);
+                }
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            error = new IllegalStateException("Cannot copy the fields of " + c, e);
+        }
+        this.copiers = copiers;
+        this.backupCopiers = backupCopiers;
+        List<MethodHandle> instanceCopiers = new ArrayList<>();
+        List<Field> referenceFields = new ArrayList<>();
+        for (int i = 0; i < fields.length; i++) {
+            if (Modifier.isStatic(fields[i].getModifiers())) continue;
+            instanceCopiers.add(backupCopiers[i]);
+            if (!fields[i].getType().isPrimitive()) referenceFields.add(fields[i]);
+        }
+        this.instanceCopiers = instanceCopiers.toArray(new MethodHandle[0]);
+        this.referenceFields = referenceFields.toArray(new Field[0]);
+        this.comparers = comparers;
+        this.error = error;
+    }
+
+    /** Returns the (cached) copier of the fields declared in c **/
+    static InstanceCopier of(Class<?> c) {
+        return COPIERS.get(c);
+    }
+
+    private static void copy(MethodHandle[] handles, Object destination, Object source) throws Exception {
+        try {
+            for (MethodHandle handle : handles) {
+                handle.invokeExact(destination, source);
+            }
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /** Returns a new instance of the class whose fields are backups of obj's fields **/
+    Object backUp(Object obj) throws Exception {
+        if (error != null) throw error;
+        Object res = StoryTesterImpl.createTestInstance(c);
+        copy(backupCopiers, res, obj);
+        return res;
+    }
+
+    /** Assigns into destination's fields backups of source's fields **/
+    void backUpInto(Object destination, Object source) throws Exception {
+        if (error != null) throw error;
+        copy(backupCopiers, destination, source);
+    }
+
+    /**
+     * Returns a new instance of source's class, whose fields, in every class of the hierarchy, are
+     * backups of source's fields; the enclosing instances of a member class are copied the same way.
+     * Static fields are not copied, as they belong to no instance.
+     */
+    static Object copyInstance(Object source) throws Exception {
+        Object copy = StoryTesterImpl.createTestInstance(source.getClass());
+        copyInstanceInto(copy, source);
+        return copy;
+    }
+
+    /** Same as copyInstance(source), copying into destination, an instance of the same class **/
+    static void copyInstanceInto(Object destination, Object source) throws Exception {
+        copyInstanceInto(destination, source, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /** copied holds the destinations already copied into, as superclasses may share an enclosing instance **/
+    private static void copyInstanceInto(Object destination, Object source, Set<Object> copied) throws Exception {
+        if (!copied.add(destination)) return;
+        for (Class<?> k = source.getClass(); k != null && k != Object.class; k = k.getSuperclass()) {
+            InstanceCopier copier = of(k);
+            if (copier.error != null) throw copier.error;
+            Field enclosing = ENCLOSING_INSTANCE.get(k);
+            Object destinationEnclosing = enclosing == null ? null : enclosing.get(destination);
+            copy(copier.instanceCopiers, destination, source);
+            if (destinationEnclosing != null) {
+                // The copy keeps its own enclosing instance, which becomes a copy of the source's.
+                Object sourceEnclosing = enclosing.get(source);
+                enclosing.set(destination, destinationEnclosing);
+                if (sourceEnclosing != destinationEnclosing) copyInstanceInto(destinationEnclosing, sourceEnclosing, copied);
+            }
+        }
+    }
+
+    /**
+     * Returns true if copyInstance(obj) would share no object with obj: every instance field, in
+     * every class of its hierarchy, is primitive, null, or holds a value that is cloned or copied
+     * by its copy constructor when backed up. A shared value may be changed through the copy.
+     */
+    static boolean copiesEveryField(Object obj) throws Exception {
+        for (Class<?> k = obj.getClass(); k != null && k != Object.class; k = k.getSuperclass()) {
+            InstanceCopier copier = of(k);
+            if (copier.error != null) throw copier.error;
+            for (Field field : copier.referenceFields) {
+                Object value = field.get(obj);
+                if (value == null) continue;
+                CopyStrategy.Kind kind = CopyStrategy.of(value.getClass()).kind;
+                if (kind != CopyStrategy.Kind.CLONE && kind != CopyStrategy.Kind.COPY_CONSTRUCTOR) return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns true if an instance of c, or of one of its ancestors, has an enclosing instance **/
+    static boolean hasEnclosingInstance(Class<?> c) {
+        for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+            if (ENCLOSING_INSTANCE.get(k) != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Assigns into obj's fields the values of backup's fields, skipping the fields that already
+     * hold the same value. Returns the number of fields that were assigned.
+     */
+    int restore(Object obj, Object backup) throws Exception {
+        if (error != null) throw error;
+        int restored = 0;
+        try {
+            for (int i = 0; i < copiers.length; i++) {
+                if (!(boolean) comparers[i].invokeExact(obj, backup)) {
+                    copiers[i].invokeExact(obj, backup);
+                    restored++;
+                }
+            }
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+        return restored;
+    }
+}
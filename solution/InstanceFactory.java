@@ -0,0 +1,142 @@
+package solution;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates the instances of a single test class. The default constructor, and for a
+ * non-static member class the constructors of its chain of enclosing classes, are
+ * resolved once per class into a single ()Object MethodHandle.
+ * A class that implements Cloneable can also be instantiated by cloning a pristine
+ * template, which is constructed once and never handed out. The template must stay
+ * pristine, so a class whose template holds a field value that backing up would share
+ * (see CopyStrategy) is not cloned.
+ */
+final class InstanceFactory {
+
+    private static final ClassValue<InstanceFactory> FACTORIES = new ClassValue<InstanceFactory>() {
+        @Override
+        protected InstanceFactory computeValue(Class<?> type) {
+            return new InstanceFactory(type);
+        }
+    };
+
+    private static final MethodType NEW_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType UNARY_TYPE = MethodType.methodType(Object.class, Object.class);
+    /** The template of a class whose instances are not cloned after all **/
+    private static final Object NO_TEMPLATE = new Object();
+
+    private final Class<?> c;
+    /** ()Object, or null if the constructors could not be resolved **/
+    private final MethodHandle constructor;
+    /** Thrown by every call if the constructors could not be resolved **/
+    private final Exception error;
+    /** (Object)Object, the shallow clone of an instance, or null if the class is not cloned **/
+    private final MethodHandle clone;
+    /** Created by the first call of newInstanceFromTemplate(), or NO_TEMPLATE **/
+    private volatile Object template;
+
+    private InstanceFactory(Class<?> c) {
+        this.c = c;
+        MethodHandle constructor = null;
+        Exception error = null;
+        try {
+            constructor = resolve(c);
+        } catch (Exception e) {
+            error = e;
+        }
+        this.constructor = constructor;
+        this.error = error;
+        this.clone = constructor == null ? null : resolveClone(c);
+    }
+
+    /** Returns the (cached) factory of c **/
+    static InstanceFactory of(Class<?> c) {
+        return FACTORIES.get(c);
+    }
+
+    private static MethodHandle resolve(Class<?> c) throws Exception {
+        // This method uses only the default constructor.
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (!c.isMemberClass() || Modifier.isStatic(c.getModifiers())) {
+            Constructor<?> ctor = c.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            return lookup.unreflectConstructor(ctor).asType(NEW_TYPE);
+        }
+        // Enclosed non-static classes have a secret parameter - their enclosing instance,
+        // which is created by the factory of the enclosing class.
+        Class<?> enclosing = c.getEnclosingClass();
+        InstanceFactory enclosingFactory = of(enclosing);
+        if (enclosingFactory.error != null) throw enclosingFactory.error;
+        Constructor<?> ctor = c.getDeclaredConstructor(enclosing);
+        ctor.setAccessible(true);
+        MethodHandle handle = lookup.unreflectConstructor(ctor).asType(UNARY_TYPE);
+        return MethodHandles.collectArguments(handle, 0, enclosingFactory.constructor);
+    }
+
+    /**
+     * Returns Object.clone() bound to c, for a Cloneable class whose instances (in any class of
+     * the hierarchy) do not have an enclosing instance; a clone would share it with the template.
+     */
+    private static MethodHandle resolveClone(Class<?> c) {
+        if (!Cloneable.class.isAssignableFrom(c) || InstanceCopier.hasEnclosingInstance(c)) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+            return lookup.findVirtual(c, "clone", NEW_TYPE).asType(UNARY_TYPE);
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Returns a new instance of the class, created by its default constructor **/
+    Object newInstance() throws Exception {
+        if (error != null) throw error;
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Throwable t) {
+            // As Constructor.newInstance does, whatever the constructor throws is wrapped.
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Returns a new instance of the class, cloned from the template: a shallow clone, whose
+     * instance fields (of the class and its ancestors) are then assigned backups of the template's.
+     * The constructor of the class runs only once, for the template. A class that is not
+     * Cloneable, or has an enclosing instance, is created by newInstance(). So is a class whose
+     * template has a field that would be shared with the clones, since a story could change it
+     * through its clone; the field strategies depend on the runtime classes of the values, so
+     * this is checked on the template once it is constructed.
+     */
+    Object newInstanceFromTemplate() throws Exception {
+        if (clone == null) return newInstance();
+        Object template = this.template;
+        if (template == null) {
+            synchronized (this) {
+                template = this.template;
+                if (template == null) {
+                    template = newInstance();
+                    if (!InstanceCopier.copiesEveryField(template)) template = NO_TEMPLATE;
+                    this.template = template;
+                }
+            }
+        }
+        if (template == NO_TEMPLATE) return newInstance();
+        Object res;
+        try {
+            res = (Object) clone.invokeExact(template);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+        InstanceCopier.copyInstanceInto(res, template);
+        return res;
+    }
+}
@@ -0,0 +1,18 @@
+package solution;
+
+/**
+ * How StoryTesterImpl creates the test instance each story runs on.
+ */
+public enum InstantiationMode {
+    /** Every story runs on a new instance created by the default constructor. **/
+    CONSTRUCTOR,
+    /**
+     * A test class that implements Cloneable is constructed once, into a template, and every
+     * story runs on a clone of it whose fields are backups of the template's fields (a clone,
+     * a copy, or the value itself, as in backing up). The constructor does not run per story.
+     * Static fields are not copied. Other test classes, classes whose instances have an
+     * enclosing instance, and classes whose template holds a field value that would be
+     * shared rather than cloned or copied, are created as in CONSTRUCTOR.
+     */
+    TEMPLATE_CLONE
+}
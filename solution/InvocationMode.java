@@ -0,0 +1,11 @@
+package solution;
+
+/**
+ * How StoryTesterImpl invokes the step methods it resolved.
+ */
+public enum InvocationMode {
+    /** Each step is bound once to a MethodHandle, which is reused for every line. **/
+    METHOD_HANDLE,
+    /** Each line goes through Method.invoke, as the tester originally did. **/
+    REFLECTION
+}
@@ -0,0 +1,123 @@
+package solution;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations in nanoseconds, in log-linear buckets as in HdrHistogram:
+ * values under 32 have a bucket each, and every power of two above that is split into
+ * 16 buckets, so a value is known to within 1/16 (6.25%) of itself. The buckets cover
+ * every long value in a fixed array, and recording is a few atomic increments, without
+ * locks or allocation.
+ * <p>
+ * The getters read the counts while they may still be recorded into, so a histogram that
+ * is being recorded into may report, for instance, a total count that does not yet include
+ * a value its buckets do.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Values below this have a bucket each **/
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    /** Enough buckets for Long.MAX_VALUE **/
+    static final int NUM_BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /** Returns the index of the bucket of a non-negative value **/
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /** Returns the smallest value in the given bucket **/
+    static long lowestValueOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    /** Returns the largest value in the given bucket **/
+    static long highestValueOf(int bucket) {
+        return bucket == NUM_BUCKETS - 1 ? Long.MAX_VALUE : lowestValueOf(bucket + 1) - 1;
+    }
+
+    /** Records a duration; a negative one is recorded as 0 **/
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long min;
+        while (nanos < (min = minNanos.get()) && !minNanos.compareAndSet(min, nanos)) {
+            // Another thread recorded a value meanwhile; compare with it.
+        }
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // Another thread recorded a value meanwhile; compare with it.
+        }
+    }
+
+    /** Returns the number of recorded durations **/
+    public long getCount() {
+        return count.get();
+    }
+
+    /** Returns the sum of the recorded durations **/
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /** Returns the mean of the recorded durations, or 0 if none was recorded **/
+    public double getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) totalNanos.get() / n;
+    }
+
+    /** Returns the shortest recorded duration (exactly), or 0 if none was recorded **/
+    public long getMinNanos() {
+        long min = minNanos.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    /** Returns the longest recorded duration (exactly), or 0 if none was recorded **/
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns a duration that at least percentile percent of the recorded durations do not exceed:
+     * the highest value of the bucket the percentile falls in, but no more than the longest duration.
+     * Returns 0 if none was recorded.
+     *
+     * @throws IllegalArgumentException if percentile is not between 0 and 100.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) throw new IllegalArgumentException();
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(highestValueOf(i), getMaxNanos());
+        }
+        return getMaxNanos();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0fns min=%dns p50=%dns p90=%dns p99=%dns max=%dns",
+                getCount(), getMeanNanos(), getMinNanos(), getValueAtPercentile(50),
+                getValueAtPercentile(90), getValueAtPercentile(99), getMaxNanos());
+    }
+}
@@ -0,0 +1,79 @@
+package solution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Finds the class a story should run on when testing nested classes: the first
+ * class, in a pre-order walk over the nested classes tree (the root first, then
+ * each of its nested classes in declaration order), whose inheritance tree defines
+ * the story's first Given sentence.
+ * The tree is walked once per root class, and the answer for each Given sentence is
+ * cached, so no test instances are created and no exceptions are thrown while searching.
+ */
+final class NestedClassResolver {
+
+    /**
+     * The number of Given sentences cached per root class. A sentence still holds the arguments
+     * of every placeholder but the last, so a generated corpus could otherwise grow the cache
+     * without a bound; sentences beyond it are searched for on every story instead.
+     */
+    static final int MAX_CACHED_SENTENCES = 1024;
+
+    private static final ClassValue<NestedClassResolver> RESOLVERS = new ClassValue<NestedClassResolver>() {
+        @Override
+        protected NestedClassResolver computeValue(Class<?> type) {
+            return new NestedClassResolver(type);
+        }
+    };
+
+    /** The root class and every class nested under it, in pre-order **/
+    private final Class<?>[] classes;
+    private final ConcurrentMap<String, Optional<Class<?>>> resolved = new ConcurrentHashMap<>();
+
+    private NestedClassResolver(Class<?> root) {
+        List<Class<?>> classes = new ArrayList<>();
+        addTree(root, classes);
+        this.classes = classes.toArray(new Class<?>[0]);
+    }
+
+    private static void addTree(Class<?> c, List<Class<?>> classes) {
+        classes.add(c);
+        for (Class<?> innerClass : c.getDeclaredClasses()) {
+            addTree(innerClass, classes);
+        }
+    }
+
+    /**
+     * Returns the class under root (inclusive) to run a story whose first Given line is
+     * the current line of the cursor, or null if no such class exists.
+     * Lines are cached by their sentence without the parameter, since the parameter
+     * (the last word) never affects which steps match.
+     */
+    static Class<?> resolve(Class<?> root, StoryCursor given) {
+        NestedClassResolver resolver = RESOLVERS.get(root);
+        // sentenceSub() may be a CharSpan view, which hashes and compares like a String.
+        Optional<Class<?>> result = resolver.resolved.get(given.sentenceSub());
+        if (result != null) return result.orElse(null);
+        Class<?> found = resolver.search(given, new StepMatch());
+        if (resolver.resolved.size() < MAX_CACHED_SENTENCES) {
+            resolver.resolved.putIfAbsent(given.sentenceSub().toString(), Optional.ofNullable(found));
+        }
+        return found;
+    }
+
+    /** Returns the number of Given sentences cached for root **/
+    static int numCached(Class<?> root) {
+        return RESOLVERS.get(root).resolved.size();
+    }
+
+    private Class<?> search(StoryCursor given, StepMatch match) {
+        for (Class<?> c : classes) {
+            if (StoryTesterImpl.findStep(c, Given.class, given, match)) return c;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package solution;
+
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * The registry of converters from the words of a story to the parameter types of step methods.
+ * String, the primitive numbers and their wrappers, Boolean, BigDecimal, Duration (in its
+ * ISO-8601 form, e.g. PT15M) and every enum (by constant name) are supported out of the box.
+ * Any other parameter type gets an Integer, as before.
+ * <p>
+ * The converter of every step parameter is resolved once, when the steps of its class are first
+ * used, so converters must be registered before running stories on the classes that need them.
+ * A compiled story reuses the values it converted on later runs, so converters should return
+ * immutable values.
+ */
+public final class ParameterConverters {
+
+    private static final ConcurrentMap<Class<?>, Function<String, ?>> CONVERTERS = new ConcurrentHashMap<>();
+    /** The built-in converters, whatever was registered since **/
+    private static final Map<Class<?>, Function<String, ?>> BUILT_IN;
+
+    static {
+        register(String.class, s -> s);
+        register(Integer.class, Integer::valueOf);
+        register(Long.class, Long::valueOf);
+        register(Short.class, Short::valueOf);
+        register(Byte.class, Byte::valueOf);
+        register(Double.class, Double::valueOf);
+        register(Float.class, Float::valueOf);
+        register(Boolean.class, Boolean::valueOf);
+        register(BigDecimal.class, BigDecimal::new);
+        register(Duration.class, Duration::parse);
+        BUILT_IN = new HashMap<>(CONVERTERS);
+    }
+
+    private ParameterConverters() {
+    }
+
+    /**
+     * Registers the converter for step parameters of the given type, replacing any previous one.
+     * Primitive parameters use the converter of their wrapper type.
+     *
+     * @throws IllegalArgumentException if type or converter are null, or type is primitive.
+     */
+    public static <T> void register(Class<T> type, Function<String, ? extends T> converter) {
+        if (type == null || converter == null || type.isPrimitive()) throw new IllegalArgumentException();
+        CONVERTERS.put(type, converter);
+    }
+
+    /** Returns the converter for step parameters of the given type **/
+    static Function<String, ?> of(Class<?> type) {
+        Class<?> boxed = MethodType.methodType(type).wrap().returnType();
+        Function<String, ?> converter = CONVERTERS.get(boxed);
+        if (converter != null) return converter;
+        if (boxed.isEnum()) return enumConverter(boxed.asSubclass(Enum.class));
+        return CONVERTERS.get(Integer.class);
+    }
+
+    /**
+     * Returns true if converter is the built-in converter of the given (wrapper) type, so values
+     * of the type may be parsed without it, the same way.
+     */
+    static boolean isBuiltIn(Class<?> type, Function<String, ?> converter) {
+        return BUILT_IN.get(type) == converter;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, ?> enumConverter(Class<? extends Enum> type) {
+        return s -> Enum.valueOf(type, s);
+    }
+}
@@ -0,0 +1,161 @@
+package solution;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs many stories on the same test class, running the lines they start with in
+ * common only once. The stories are merged into a trie of lines; every path from the
+ * root is run on a single test instance, and where stories branch apart the instance
+ * (its instance fields in every class of the hierarchy, and its enclosing instances; see
+ * InstanceCopier.copyInstance) and the state of the run are saved, and restored for every branch.
+ * <p>
+ * Every story gets the same StoryResult it would get from
+ * StoryTesterImpl.runOnInheritanceTree, as long as its steps only change the test
+ * instance (and not static fields), and the backups of its fields are real copies (fields that can only be
+ * shared are shared between the branches, too). The stories run to their end: the
+ * budgets and timeouts of an ExecutionPolicy cannot be told apart between stories
+ * that share lines, so no policy is applied.
+ */
+public final class SharedPrefixRunner {
+
+    private static final class Node {
+        final StoryLine line;
+        final Map<String, Node> children = new LinkedHashMap<>(2);
+        /** The indexes of the stories that end at this node **/
+        int[] ending = new int[0];
+
+        Node(StoryLine line) {
+            this.line = line;
+        }
+
+        void addEnding(int story) {
+            ending = Arrays.copyOf(ending, ending.length + 1);
+            ending[ending.length - 1] = story;
+        }
+    }
+
+    private final InvocationMode invocationMode;
+
+    public SharedPrefixRunner() {
+        this(InvocationMode.METHOD_HANDLE);
+    }
+
+    /** Creates a runner that invokes the step methods using the given mode **/
+    public SharedPrefixRunner(InvocationMode invocationMode) {
+        if (invocationMode == null) throw new IllegalArgumentException();
+        this.invocationMode = invocationMode;
+    }
+
+    /**
+     * Runs every story on testClass, and returns their results in the same order.
+     * Errors that are not failures (see StoryTesterImpl.runOnInheritanceTree) are thrown
+     * as soon as they happen, like a single story would.
+     */
+    public List<StoryResult> runAll(List<CompiledStory> stories, Class<?> testClass) throws Exception {
+        if (stories == null || testClass == null) throw new IllegalArgumentException();
+        Node root = new Node(null);
+        for (int i = 0; i < stories.size(); i++) {
+            Node node = root;
+            for (StoryLine line : stories.get(i).getLines()) {
+                node = node.children.computeIfAbsent(line.getSentence(), k -> new Node(line));
+            }
+            node.addEnding(i);
+        }
+        StoryResult[] results = new StoryResult[stories.size()];
+        StoryRun run = new StoryRun(StoryTesterImpl.createTestInstance(testClass), ExecutionPolicy.RUN_TO_END);
+        run(root, run, testClass, new StoryLineCursor(Collections.emptyList()), new StepMatch(), results);
+        return Arrays.asList(results);
+    }
+
+    /** Same as runAll(List, Class), for stories that were not compiled yet **/
+    public List<StoryResult> runAllStories(List<String> stories, Class<?> testClass) throws Exception {
+        if (stories == null) throw new IllegalArgumentException();
+        List<CompiledStory> compiled = new ArrayList<>(stories.size());
+        for (String story : stories) {
+            compiled.add(StoryCompiler.compile(story));
+        }
+        return runAll(compiled, testClass);
+    }
+
+    /**
+     * Runs the subtree under node, whose line (if any) already ran on run.
+     * Recurses only where stories branch apart, so long shared runs of lines cost no stack.
+     */
+    private void run(Node node, StoryRun run, Class<?> testClass, StoryLineCursor line, StepMatch match,
+                     StoryResult[] results) throws Exception {
+        while (true) {
+            for (int story : node.ending) {
+                results[story] = run.result();
+            }
+            if (node.children.isEmpty()) return;
+            if (node.children.size() == 1) {
+                node = node.children.values().iterator().next();
+                if (!runLine(node, run, testClass, line, match, results)) return;
+                continue;
+            }
+            // A branch point: every branch starts from the state the instance and the run are in now.
+            Object snapshot = InstanceCopier.copyInstance(run.testInstance);
+            StoryRun saved = run.copy();
+            int remaining = node.children.size();
+            boolean first = true;
+            for (Node child : node.children.values()) {
+                remaining--;
+                StoryRun branch;
+                if (first) {
+                    // The instance is still in the state of the snapshot.
+                    branch = run;
+                    first = false;
+                } else {
+                    // Copying from the snapshot leaves it untouched for the next branches.
+                    InstanceCopier.copyInstanceInto(run.testInstance, snapshot);
+                    branch = remaining == 0 ? saved : saved.copy();
+                }
+                if (runLine(child, branch, testClass, line, match, results)) {
+                    run(child, branch, testClass, line, match, results);
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * Runs the line of node. If it has no matching step, every story through node
+     * stops there, and false is returned.
+     */
+    private boolean runLine(Node node, StoryRun run, Class<?> testClass, StoryLineCursor line, StepMatch match,
+                            StoryResult[] results) throws Exception {
+        line.at(node.line);
+        Class<? extends Annotation> annotationClass = line.annotationClass();
+        if (!StoryTesterImpl.findStep(testClass, annotationClass, line, match)) {
+            StoryResult missing = run.missingStep(line);
+            Deque<Node> subtree = new ArrayDeque<>();
+            subtree.push(node);
+            while (!subtree.isEmpty()) {
+                Node n = subtree.pop();
+                for (int story : n.ending) {
+                    results[story] = missing;
+                }
+                for (Node child : n.children.values()) {
+                    subtree.push(child);
+                }
+            }
+            return false;
+        }
+        run.beforeLine(annotationClass);
+        try {
+            match.step.invoke(run.testInstance, match, line.convertedArguments(match), invocationMode);
+        } catch (InvocationTargetException e) {
+            run.failed(line, e);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,48 @@
+package solution;
+
+import provided.GivenNotFoundException;
+import provided.ThenNotFoundException;
+import provided.WhenNotFoundException;
+
+/**
+ * Variants of the exceptions thrown by the tester that skip filling in their stack trace.
+ * Used by ExceptionMode.STACKLESS. The variants are not preallocated even where they carry
+ * no state, since a shared instance would collect the suppressed exceptions of every catcher.
+ */
+final class StacklessExceptions {
+
+    private StacklessExceptions() {
+    }
+
+    static final class Given extends GivenNotFoundException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    static final class When extends WhenNotFoundException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    static final class Then extends ThenNotFoundException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    static final class StoryTest extends StoryTestExceptionImpl {
+        StoryTest(String sentence, String expected, String result, int fails, FailedThens failedThens) {
+            super(sentence, expected, result, fails, failedThens);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package solution;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * A resolved step method, ready to be invoked on a test instance.
+ * The accessibility check, the converter of every parameter and the MethodHandle
+ * are all computed once, when the step is registered.
+ */
+final class Step {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType SPREAD_INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+    /** How the arguments are passed to the handle **/
+    private enum Binding {
+        /**
+         * A single primitive parameter whose wrapper has its built-in converter,
+         * parsed straight from the line and passed without boxing
+         */
+        INT, LONG, DOUBLE, BOOLEAN,
+        /** A single reference parameter **/
+        OBJECT,
+        /** Any other number of parameters, spread from an Object[] **/
+        SPREAD
+    }
+
+    final Method method;
+    /** The annotation name and sentence of each of the annotations of the method, or null **/
+    private final String givenSentence;
+    private final String whenSentence;
+    private final String thenSentence;
+    private final Function<String, ?>[] converters;
+    private final Binding binding;
+    /**
+     * (Object, T)void for a single parameter of type T (Object unless bound as a primitive),
+     * or (Object, Object[])void otherwise
+     */
+    private final MethodHandle handle;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Step(Method method) {
+        this.method = method;
+        method.setAccessible(true);
+        Class<?>[] types = method.getParameterTypes();
+        this.converters = new Function[types.length];
+        for (int i = 0; i < types.length; i++) {
+            converters[i] = ParameterConverters.of(types[i]);
+        }
+        this.binding = types.length == 1 ? bindingOf(types[0], converters[0]) : Binding.SPREAD;
+        this.handle = bind(method, binding, types);
+        Given given = method.getAnnotation(Given.class);
+        this.givenSentence = given == null ? null : "Given " + given.value();
+        When when = method.getAnnotation(When.class);
+        this.whenSentence = when == null ? null : "When " + when.value();
+        Then then = method.getAnnotation(Then.class);
+        this.thenSentence = then == null ? null : "Then " + then.value();
+    }
+
+    /** Returns the annotation name and sentence the step was matched by, as in "Given a Dog of age &age" **/
+    String sentence(Class<? extends Annotation> annotationClass) {
+        if (annotationClass == Given.class) return givenSentence;
+        if (annotationClass == When.class) return whenSentence;
+        return thenSentence;
+    }
+
+    private static Binding bindingOf(Class<?> type, Function<String, ?> converter) {
+        // A registered converter of the wrapper type must see every argument, so it is unboxed instead.
+        if (type == int.class && ParameterConverters.isBuiltIn(Integer.class, converter)) return Binding.INT;
+        if (type == long.class && ParameterConverters.isBuiltIn(Long.class, converter)) return Binding.LONG;
+        if (type == double.class && ParameterConverters.isBuiltIn(Double.class, converter)) return Binding.DOUBLE;
+        if (type == boolean.class && ParameterConverters.isBuiltIn(Boolean.class, converter)) return Binding.BOOLEAN;
+        return Binding.OBJECT;
+    }
+
+    private static MethodHandle bind(Method method, Binding binding, Class<?>[] types) {
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                // A static step ignores the test instance, as Method.invoke does.
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            switch (binding) {
+                case OBJECT:
+                    return handle.asType(INVOKER_TYPE);
+                case SPREAD:
+                    return handle.asSpreader(Object[].class, types.length).asType(SPREAD_INVOKER_TYPE);
+                default:
+                    return handle.asType(MethodType.methodType(void.class, Object.class, types[0]));
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            // Fall back to reflection, which reports the problem when the step is invoked.
+            return null;
+        }
+    }
+
+    /**
+     * Converts the arguments of the matched line to the parameter types of the step.
+     * A step with a single parameter gets the last placeholder - the last word of the line.
+     * Arguments beyond the parameters of the step are left as Strings, for reflection to report.
+     */
+    Object[] convert(StepMatch match) {
+        int numArguments = match.numArguments();
+        if (converters.length == 1) {
+            return new Object[]{converters[0].apply(match.stringArgument(numArguments - 1))};
+        }
+        Object[] arguments = new Object[numArguments];
+        for (int i = 0; i < numArguments; i++) {
+            String word = match.stringArgument(i);
+            arguments[i] = i < converters.length ? converters[i].apply(word) : word;
+        }
+        return arguments;
+    }
+
+    /**
+     * Invokes the step on target with the arguments of the matched line.
+     * The placeholders are passed to the parameters in order. A step with a single
+     * parameter gets the last placeholder - the last word of the line.
+     * converted holds the arguments already converted by convert(match), or is null
+     * if they should be converted from the line now.
+     * Exceptions thrown by the step itself are wrapped in an InvocationTargetException,
+     * regardless of the invocation mode; exceptions of the conversion are thrown as is.
+     */
+    void invoke(Object target, StepMatch match, Object[] converted, InvocationMode mode) throws Exception {
+        if (mode == InvocationMode.REFLECTION || handle == null) {
+            method.invoke(target, converted != null ? converted : convert(match));
+            return;
+        }
+        int last = match.numArguments() - 1;
+        switch (binding) {
+            case INT: {
+                int value = converted != null ? (Integer) converted[0] : match.intArgument(last);
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable t) {
+                    throw new InvocationTargetException(t);
+                }
+                return;
+            }
+            case LONG: {
+                long value = converted != null ? (Long) converted[0] : match.longArgument(last);
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable t) {
+                    throw new InvocationTargetException(t);
+                }
+                return;
+            }
+            case DOUBLE: {
+                double value = converted != null ? (Double) converted[0] : match.doubleArgument(last);
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable t) {
+                    throw new InvocationTargetException(t);
+                }
+                return;
+            }
+            case BOOLEAN: {
+                boolean value = converted != null ? (Boolean) converted[0] : match.booleanArgument(last);
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable t) {
+                    throw new InvocationTargetException(t);
+                }
+                return;
+            }
+            case OBJECT: {
+                Object value = converted != null ? converted[0] : converters[0].apply(match.stringArgument(last));
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable t) {
+                    throw new InvocationTargetException(t);
+                }
+                return;
+            }
+            default: {
+                Object[] arguments = converted != null ? converted : convert(match);
+                if (arguments.length != converters.length) {
+                    // Reflection reports a mismatching number of arguments.
+                    method.invoke(target, arguments);
+                    return;
+                }
+                try {
+                    handle.invokeExact(target, arguments);
+                } catch (Throwable t) {
+                    throw new InvocationTargetException(t);
+                }
+            }
+        }
+    }
+}
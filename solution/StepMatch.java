@@ -0,0 +1,74 @@
+package solution;
+
+import java.util.Arrays;
+
+/**
+ * The result of matching a story line against the step sentences: the step
+ * found, and the positions of its arguments (the words matched by placeholders)
+ * in the line. A StepMatch is reused for every line of a run, so matching
+ * allocates nothing.
+ */
+final class StepMatch {
+    /** Used to look up literal words without copying them **/
+    final CharSpan word = new CharSpan();
+
+    CharSequence text;
+    Step step;
+    private int[] argumentStarts = new int[4];
+    private int[] argumentEnds = new int[4];
+    private int numArguments;
+
+    void reset(CharSequence text) {
+        this.text = text;
+        this.step = null;
+        this.numArguments = 0;
+    }
+
+    void pushArgument(int start, int end) {
+        if (numArguments == argumentStarts.length) {
+            argumentStarts = Arrays.copyOf(argumentStarts, numArguments * 2);
+            argumentEnds = Arrays.copyOf(argumentEnds, numArguments * 2);
+        }
+        argumentStarts[numArguments] = start;
+        argumentEnds[numArguments] = end;
+        numArguments++;
+    }
+
+    void popArgument() {
+        numArguments--;
+    }
+
+    int numArguments() {
+        return numArguments;
+    }
+
+    /** Returns the i'th argument of the line, as a String **/
+    String stringArgument(int i) {
+        return text.subSequence(argumentStarts[i], argumentEnds[i]).toString();
+    }
+
+    /** Returns the i'th argument of the line, parsed as an int **/
+    int intArgument(int i) {
+        return Integer.parseInt(text, argumentStarts[i], argumentEnds[i], 10);
+    }
+
+    /** Returns the i'th argument of the line, parsed as a long **/
+    long longArgument(int i) {
+        return Long.parseLong(text, argumentStarts[i], argumentEnds[i], 10);
+    }
+
+    /** Returns the i'th argument of the line, parsed as a double **/
+    double doubleArgument(int i) {
+        return Double.parseDouble(stringArgument(i));
+    }
+
+    /** Returns the i'th argument of the line, parsed as a boolean the way Boolean.parseBoolean does **/
+    boolean booleanArgument(int i) {
+        int start = argumentStarts[i];
+        if (argumentEnds[i] - start != 4) return false;
+        return Character.toLowerCase(text.charAt(start)) == 't'
+                && Character.toLowerCase(text.charAt(start + 1)) == 'r'
+                && Character.toLowerCase(text.charAt(start + 2)) == 'u'
+                && Character.toLowerCase(text.charAt(start + 3)) == 'e';
+    }
+}
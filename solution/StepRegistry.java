@@ -0,0 +1,73 @@
+package solution;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The steps of a class and all of its ancestors, compiled into one StepTrie per
+ * annotation. The hierarchy is merged once per class and cached, with a step of a
+ * subclass shadowing any step of an ancestor that matches the same line, so
+ * resolving a story line costs a single walk over its words and never visits
+ * the superclasses again.
+ */
+final class StepRegistry {
+
+    /** The steps declared directly in each class, shared by the registries of its subclasses **/
+    private static final ClassValue<Step[]> DECLARED = new ClassValue<Step[]>() {
+        @Override
+        protected Step[] computeValue(Class<?> type) {
+            List<Step> steps = new ArrayList<>();
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Given.class) || method.isAnnotationPresent(When.class)
+                        || method.isAnnotationPresent(Then.class)) {
+                    steps.add(new Step(method));
+                }
+            }
+            return steps.toArray(new Step[0]);
+        }
+    };
+
+    private static final ClassValue<StepRegistry> REGISTRIES = new ClassValue<StepRegistry>() {
+        @Override
+        protected StepRegistry computeValue(Class<?> type) {
+            return new StepRegistry(type);
+        }
+    };
+
+    private final StepTrie givens = new StepTrie();
+    private final StepTrie whens = new StepTrie();
+    private final StepTrie thens = new StepTrie();
+
+    private StepRegistry(Class<?> c) {
+        int rank = 0;
+        for (Class<?> k = c; k != null; k = k.getSuperclass(), rank++) {
+            for (Step step : DECLARED.get(k)) {
+                Given given = step.method.getAnnotation(Given.class);
+                if (given != null) givens.add(given.value(), step, rank);
+                When when = step.method.getAnnotation(When.class);
+                if (when != null) whens.add(when.value(), step, rank);
+                Then then = step.method.getAnnotation(Then.class);
+                if (then != null) thens.add(then.value(), step, rank);
+            }
+        }
+    }
+
+    /** Returns the (cached) registry of the steps of c and its ancestors **/
+    static StepRegistry of(Class<?> c) {
+        return REGISTRIES.get(c);
+    }
+
+    /**
+     * Matches the sentence in text between start and end (without the annotation name)
+     * against the steps of this class and its ancestors annotated by annotationClass.
+     * Returns true and fills match if a step was found.
+     */
+    boolean find(Class<? extends Annotation> annotationClass, CharSequence text, int start, int end, StepMatch match) {
+        if (annotationClass == Given.class) return givens.match(text, start, end, match);
+        if (annotationClass == When.class) return whens.match(text, start, end, match);
+        if (annotationClass == Then.class) return thens.match(text, start, end, match);
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+package solution;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The durations of the steps a StoryTesterImpl ran, in a LatencyHistogram per step and one per
+ * test class. A step is named by its annotation and sentence, as in "When the dog is walked for &hours".
+ * Every invoked step is timed, whether it passed, failed or threw; a line whose step was not found
+ * is not. The timings may be shared by testers, and recorded into from several threads.
+ * <p>
+ * A tester records timings only if it was created by StoryTesterImpl.withStepTimings, so a tester
+ * without timings pays for a single null check per line.
+ */
+public final class StepTimings {
+
+    private static final class ClassTimings {
+        final LatencyHistogram all = new LatencyHistogram();
+        final ConcurrentHashMap<String, LatencyHistogram> steps = new ConcurrentHashMap<>();
+    }
+
+    private final ConcurrentHashMap<Class<?>, ClassTimings> classes = new ConcurrentHashMap<>();
+
+    /** Records that step ran for nanos, on an instance of testClass **/
+    void record(Class<?> testClass, String step, long nanos) {
+        ClassTimings timings = classes.get(testClass);
+        if (timings == null) timings = classes.computeIfAbsent(testClass, c -> new ClassTimings());
+        LatencyHistogram histogram = timings.steps.get(step);
+        if (histogram == null) histogram = timings.steps.computeIfAbsent(step, s -> new LatencyHistogram());
+        histogram.record(nanos);
+        timings.all.record(nanos);
+    }
+
+    /** Returns the test classes that ran steps **/
+    public Set<Class<?>> getTestClasses() {
+        return Collections.unmodifiableSet(classes.keySet());
+    }
+
+    /** Returns the steps that ran on instances of testClass, or an empty set if there are none **/
+    public Set<String> getSteps(Class<?> testClass) {
+        ClassTimings timings = classes.get(testClass);
+        return timings == null ? Collections.emptySet() : Collections.unmodifiableSet(timings.steps.keySet());
+    }
+
+    /**
+     * Returns the durations of step on instances of testClass, or null if it never ran on them.
+     * The histogram is live: it keeps recording later runs of the step.
+     */
+    public LatencyHistogram getStepHistogram(Class<?> testClass, String step) {
+        ClassTimings timings = classes.get(testClass);
+        return timings == null ? null : timings.steps.get(step);
+    }
+
+    /**
+     * Returns the durations of all the steps that ran on instances of testClass, or null if
+     * none did. The histogram is live: it keeps recording later runs of the steps.
+     */
+    public LatencyHistogram getClassHistogram(Class<?> testClass) {
+        ClassTimings timings = classes.get(testClass);
+        return timings == null ? null : timings.all;
+    }
+
+    /** Forgets all the timings **/
+    public void clear() {
+        classes.clear();
+    }
+
+    /**
+     * Appends a summary of every test class, followed by one of each of its steps, to out:
+     * the count, mean, minimum, median, 90th and 99th percentiles and maximum of the durations.
+     * The classes and steps are sorted by name.
+     */
+    public void dump(Appendable out) throws IOException {
+        Map<Class<?>, ClassTimings> sorted = new TreeMap<>(Comparator.comparing(Class::getName));
+        sorted.putAll(classes);
+        for (Map.Entry<Class<?>, ClassTimings> entry : sorted.entrySet()) {
+            out.append(entry.getKey().getName()).append(": ").append(entry.getValue().all.toString()).append('\n');
+            for (Map.Entry<String, LatencyHistogram> step : new TreeMap<>(entry.getValue().steps).entrySet()) {
+                out.append("    ").append(step.getKey()).append(": ").append(step.getValue().toString()).append('\n');
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            dump(builder);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package solution;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A word trie of the step sentences of one annotation. Placeholder words
+ * (starting with '&') and the last word of every sentence, which is always its
+ * parameter, match any word of a line. A line is matched by walking its words
+ * from left to right, preferring a literal word over a placeholder at every
+ * step (backtracking only if the literal branch dead-ends), so the cost
+ * depends on the length of the line and not on the number of steps.
+ * <p>
+ * Every step has a rank - the distance from the class it was declared in to the
+ * class the trie was built for. A step of a lower rank shadows any step of a higher
+ * rank that matches the same line, even one that matches it with more literal words.
+ */
+final class StepTrie {
+
+    private static final class Node {
+        Map<String, Node> literals;
+        Node placeholder;
+        Step step;
+        int rank = Integer.MAX_VALUE;
+        /** The lowest rank of a step in the subtree of this node **/
+        int minRank = Integer.MAX_VALUE;
+
+        Node literal(String word) {
+            if (literals == null) literals = new HashMap<>();
+            return literals.computeIfAbsent(word, w -> new Node());
+        }
+    }
+
+    private final Node root = new Node();
+    private int maxRank = -1;
+
+    /**
+     * Adds the step of the given rank for the given sentence, unless a step with an
+     * equivalent sentence was already added with the same or a lower rank (among
+     * steps of the same rank, the first one added wins).
+     * Returns false if the sentence has no parameter and can never be matched.
+     */
+    boolean add(String sentence, Step step, int rank) {
+        int last = sentence.lastIndexOf(' ');
+        if (last < 0) return false;
+        maxRank = Math.max(maxRank, rank);
+        Node node = root;
+        node.minRank = Math.min(node.minRank, rank);
+        int start = 0;
+        while (true) {
+            int end = sentence.indexOf(' ', start);
+            if (end < 0) end = sentence.length();
+            boolean isLast = start > last;
+            if (isLast || (end > start && sentence.charAt(start) == '&')) {
+                if (node.placeholder == null) node.placeholder = new Node();
+                node = node.placeholder;
+            } else {
+                node = node.literal(sentence.substring(start, end));
+            }
+            node.minRank = Math.min(node.minRank, rank);
+            if (isLast) break;
+            start = end + 1;
+        }
+        if (rank < node.rank) {
+            node.step = step;
+            node.rank = rank;
+        }
+        return true;
+    }
+
+    /**
+     * Matches the sentence in text between start and end (excluding the annotation name)
+     * into match. Returns false, leaving match without a step, if no step matches.
+     */
+    boolean match(CharSequence text, int start, int end, StepMatch match) {
+        // Look for a step of each rank in turn, skipping subtrees without a step of that rank.
+        // Usually the line matches a step of the lowest rank reachable, in a single walk.
+        for (int rank = root.minRank; rank <= maxRank; rank++) {
+            if (match(root, rank, text, start, end, match)) return true;
+        }
+        return false;
+    }
+
+    private static boolean match(Node node, int rank, CharSequence text, int start, int end, StepMatch match) {
+        if (node.minRank > rank) return false;
+        if (start > end) {
+            // Every word was consumed.
+            if (node.rank != rank) return false;
+            match.step = node.step;
+            return true;
+        }
+        int wordEnd = start;
+        while (wordEnd < end && text.charAt(wordEnd) != ' ') wordEnd++;
+        if (node.literals != null) {
+            Node next = node.literals.get(match.word.set(text, start, wordEnd));
+            if (next != null && match(next, rank, text, wordEnd + 1, end, match)) return true;
+        }
+        if (node.placeholder != null) {
+            match.pushArgument(start, wordEnd);
+            if (match(node.placeholder, rank, text, wordEnd + 1, end, match)) return true;
+            match.popArgument();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package solution;
+
+/**
+ * Why a run stopped before the end of its story, as decided by its ExecutionPolicy.
+ */
+public enum StopReason {
+    /** The number of failed Then sentences reached the limit of the policy **/
+    FAILURES,
+    /** The run took longer than the wall-clock budget of the policy **/
+    WALL_CLOCK_BUDGET,
+    /** The thread running the story used more CPU time than the budget of the policy **/
+    CPU_BUDGET,
+    /** A step ran for longer than the step timeout of the policy **/
+    STEP_TIMEOUT,
+    /** The run took longer than the story timeout of the policy **/
+    STORY_TIMEOUT
+}
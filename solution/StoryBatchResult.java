@@ -0,0 +1,74 @@
+package solution;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of a batch of stories run by StoryBatchRunner, in the order the jobs were given.
+ */
+public final class StoryBatchResult {
+    private final List<StoryJobResult> results;
+    private final int numPassed;
+    private final int numFailed;
+    private final int numStopped;
+    private final int numErrors;
+    private final long numFailedSentences;
+
+    StoryBatchResult(List<StoryJobResult> results) {
+        this.results = Collections.unmodifiableList(results);
+        int passed = 0, failed = 0, stopped = 0, errors = 0;
+        long failedSentences = 0;
+        for (StoryJobResult result : results) {
+            if (result.passed()) {
+                passed++;
+            } else if (result.getStoryTestException() != null) {
+                failed++;
+                failedSentences += result.getStoryTestException().getNumFail();
+            } else if (result.stopped()) {
+                stopped++;
+            } else {
+                errors++;
+            }
+        }
+        this.numPassed = passed;
+        this.numFailed = failed;
+        this.numStopped = stopped;
+        this.numErrors = errors;
+        this.numFailedSentences = failedSentences;
+    }
+
+    /** Returns the result of every job, in the order the jobs were given **/
+    public List<StoryJobResult> getResults() {
+        return results;
+    }
+
+    /** Returns the number of stories that passed **/
+    public int getNumPassed() {
+        return numPassed;
+    }
+
+    /** Returns the number of stories with failed Then sentences **/
+    public int getNumFailed() {
+        return numFailed;
+    }
+
+    /** Returns the number of stories stopped by a budget or a timeout before any failure **/
+    public int getNumStopped() {
+        return numStopped;
+    }
+
+    /** Returns the number of stories that could not be run (e.g. a sentence was not found) **/
+    public int getNumErrors() {
+        return numErrors;
+    }
+
+    /** Returns the number of failed Then sentences, summed over all stories **/
+    public long getNumFailedSentences() {
+        return numFailedSentences;
+    }
+
+    /** Returns true if every story passed **/
+    public boolean allPassed() {
+        return numPassed == results.size();
+    }
+}
@@ -0,0 +1,60 @@
+package solution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs many stories concurrently, fanning them out over an executor.
+ * Every story runs on its own new test instance, so stories never share state.
+ * Any executor can be used - a ForkJoinPool (the default is the common pool)
+ * for CPU bound steps, or a virtual thread per task executor for steps that block.
+ */
+public final class StoryBatchRunner {
+    private final StoryTesterImpl tester;
+    private final Executor executor;
+
+    public StoryBatchRunner() {
+        this(new StoryTesterImpl(), ForkJoinPool.commonPool());
+    }
+
+    public StoryBatchRunner(Executor executor) {
+        this(new StoryTesterImpl(), executor);
+    }
+
+    public StoryBatchRunner(StoryTesterImpl tester, Executor executor) {
+        if (tester == null || executor == null) throw new IllegalArgumentException();
+        this.tester = tester;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs every job and waits for all of them to finish.
+     * A story that fails (or throws) does not stop the others.
+     */
+    public StoryBatchResult runAll(Collection<StoryJob> jobs) {
+        if (jobs == null) throw new IllegalArgumentException();
+        List<StoryJob> jobList = new ArrayList<>(jobs);
+        StoryJobResult[] results = new StoryJobResult[jobList.size()];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[jobList.size()];
+        for (int i = 0; i < futures.length; i++) {
+            int index = i;
+            futures[i] = CompletableFuture.runAsync(() -> results[index] = run(jobList.get(index)), executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        return new StoryBatchResult(Arrays.asList(results));
+    }
+
+    private StoryJobResult run(StoryJob job) {
+        try {
+            tester.testOnInheritanceTree(job.getStory(), job.getTestClass());
+            return new StoryJobResult(job, null);
+        } catch (Exception e) {
+            return new StoryJobResult(job, e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package solution;
+
+/**
+ * Thrown by the test methods of StoryTesterImpl when a run was stopped by a wall-clock or
+ * CPU time budget of its ExecutionPolicy before any Then sentence failed, so that a story
+ * that did not run to its end is never taken for a passing one. A run that failed before
+ * it was stopped throws its failures instead. The lines that ran are in the result.
+ */
+public class StoryBudgetExceededException extends Exception {
+    private final StoryResult result;
+
+    StoryBudgetExceededException(StoryResult result) {
+        super("The story was stopped by its " + (result.getStopReason() == StopReason.CPU_BUDGET ? "CPU" : "wall-clock")
+                + " budget after " + result.getNumLinesRun() + " lines");
+        this.result = result;
+    }
+
+    /** Returns the result of the run up to the point it was stopped **/
+    public StoryResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package solution;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses story text into a reusable CompiledStory.
+ */
+public final class StoryCompiler {
+
+    private StoryCompiler() {
+    }
+
+    /**
+     * Compiles the given story. The story is divided to lines using '\n', and
+     * each line must be an annotation name (Given, When or Then) followed by a
+     * sentence whose last word is the parameter.
+     *
+     * @throws IllegalArgumentException if the story is null or a line is malformed.
+     */
+    public static CompiledStory compile(String story) {
+        if (story == null) throw new IllegalArgumentException();
+        List<StoryLine> lines = new ArrayList<>();
+        StoryScanner scanner = new StoryScanner(story);
+        while (scanner.next()) {
+            lines.add(new StoryLine(scanner.sentence(), scanner.annotationClass(),
+                    scanner.sentenceSub().toString(), scanner.parameter()));
+        }
+        return new CompiledStory(lines);
+    }
+}
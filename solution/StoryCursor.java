@@ -0,0 +1,38 @@
+package solution;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Walks over the lines of a story, one line at a time.
+ * The values returned describe the current line and are only valid until
+ * the next call to next().
+ */
+interface StoryCursor {
+
+    /** Moves to the next line. Returns false when there are no more lines **/
+    boolean next() throws Exception;
+
+    /** Returns the annotation (Given, When or Then) of the current line **/
+    Class<? extends Annotation> annotationClass();
+
+    /** Returns the sentence of the current line without the annotation name and the parameter **/
+    CharSequence sentenceSub();
+
+    /** Returns the text holding the current line **/
+    CharSequence text();
+
+    /** Returns the index in text() where the sentence of the current line starts, after the annotation name **/
+    int sentenceStart();
+
+    /** Returns the index in text() where the current line ends **/
+    int sentenceEnd();
+
+    /**
+     * Returns the arguments of the current line already converted for the step of match
+     * (see Step.convert), or null if the cursor does not keep them.
+     */
+    Object[] convertedArguments(StepMatch match);
+
+    /** Returns the whole current line **/
+    String sentence();
+}
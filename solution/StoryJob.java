@@ -0,0 +1,23 @@
+package solution;
+
+/**
+ * A story to run on a test class, as part of a batch run by StoryBatchRunner.
+ */
+public final class StoryJob {
+    private final String story;
+    private final Class<?> testClass;
+
+    public StoryJob(String story, Class<?> testClass) {
+        if ((story == null) || testClass == null) throw new IllegalArgumentException();
+        this.story = story;
+        this.testClass = testClass;
+    }
+
+    public String getStory() {
+        return story;
+    }
+
+    public Class<?> getTestClass() {
+        return testClass;
+    }
+}
@@ -0,0 +1,45 @@
+package solution;
+
+import provided.StoryTestException;
+
+/**
+ * The outcome of a single StoryJob: it either passed, had failing Then
+ * sentences (a StoryTestException), was stopped by a budget or a timeout of the
+ * tester's ExecutionPolicy before any failure, or could not be run at all (any other exception).
+ */
+public final class StoryJobResult {
+    private final StoryJob job;
+    private final Exception exception;
+
+    StoryJobResult(StoryJob job, Exception exception) {
+        this.job = job;
+        this.exception = exception;
+    }
+
+    public StoryJob getJob() {
+        return job;
+    }
+
+    /** Returns true if every sentence of the story passed **/
+    public boolean passed() {
+        return exception == null;
+    }
+
+    /** Returns the failed Then sentences of the story, or null if there were none **/
+    public StoryTestException getStoryTestException() {
+        return exception instanceof StoryTestException ? (StoryTestException) exception : null;
+    }
+
+    /**
+     * Returns true if the run was stopped by a budget or a timeout before any failure
+     * (a StoryBudgetExceededException or a StoryTimeoutException)
+     */
+    public boolean stopped() {
+        return exception instanceof StoryBudgetExceededException || exception instanceof StoryTimeoutException;
+    }
+
+    /** Returns the exception the story threw, or null if it passed **/
+    public Exception getException() {
+        return exception;
+    }
+}
@@ -0,0 +1,74 @@
+package solution;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * A single tokenized line of a CompiledStory.
+ * Everything the tester needs to resolve and invoke the step is computed
+ * once, when the story is compiled.
+ */
+public final class StoryLine {
+    private final String sentence;
+    private final Class<? extends Annotation> annotationClass;
+    private final String sentenceSub;
+    private final String parameter;
+    /** The arguments of this line converted for the step it was last matched with, if any **/
+    private volatile Converted converted;
+
+    private static final class Converted {
+        final Step step;
+        final Object[] arguments;
+
+        Converted(Step step, Object[] arguments) {
+            this.step = step;
+            this.arguments = arguments;
+        }
+    }
+
+    StoryLine(String sentence, Class<? extends Annotation> annotationClass, String sentenceSub, String parameter) {
+        this.sentence = sentence;
+        this.annotationClass = annotationClass;
+        this.sentenceSub = sentenceSub;
+        this.parameter = parameter;
+    }
+
+    /** Returns a StoryLine for the current line of the cursor **/
+    static StoryLine of(StoryCursor line) {
+        String sentence = line.sentence();
+        return new StoryLine(sentence, line.annotationClass(), line.sentenceSub().toString(),
+                sentence.substring(sentence.lastIndexOf(' ') + 1));
+    }
+
+    /**
+     * Returns the arguments of this line converted for the step of match. They are converted
+     * on the first run that matches the line with that step, and reused by later runs.
+     */
+    Object[] convertedArguments(StepMatch match) {
+        Converted last = converted;
+        if (last == null || last.step != match.step) {
+            last = new Converted(match.step, match.step.convert(match));
+            converted = last;
+        }
+        return last.arguments;
+    }
+
+    /** Returns the whole line, as written in the story **/
+    public String getSentence() {
+        return sentence;
+    }
+
+    /** Returns the annotation (Given, When or Then) this line refers to **/
+    public Class<? extends Annotation> getAnnotationClass() {
+        return annotationClass;
+    }
+
+    /** Returns the sentence without the annotation name and the parameter **/
+    public String getSentenceSub() {
+        return sentenceSub;
+    }
+
+    /** Returns the parameter - the last word of the line **/
+    public String getParameter() {
+        return parameter;
+    }
+}
@@ -0,0 +1,66 @@
+package solution;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+/**
+ * A cursor over already tokenized StoryLines - the lines of a CompiledStory,
+ * or single lines placed on it with at().
+ */
+final class StoryLineCursor implements StoryCursor {
+    private final List<StoryLine> lines;
+    private int index = -1;
+    private StoryLine line;
+
+    StoryLineCursor(List<StoryLine> lines) {
+        this.lines = lines;
+    }
+
+    /** Places the cursor on the given line, which need not be one of its lines **/
+    StoryLineCursor at(StoryLine line) {
+        this.line = line;
+        return this;
+    }
+
+    @Override
+    public boolean next() {
+        if (index + 1 >= lines.size()) return false;
+        line = lines.get(++index);
+        return true;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationClass() {
+        return line.getAnnotationClass();
+    }
+
+    @Override
+    public CharSequence sentenceSub() {
+        return line.getSentenceSub();
+    }
+
+    @Override
+    public CharSequence text() {
+        return line.getSentence();
+    }
+
+    @Override
+    public int sentenceStart() {
+        return line.getSentence().indexOf(' ') + 1;
+    }
+
+    @Override
+    public int sentenceEnd() {
+        return line.getSentence().length();
+    }
+
+    @Override
+    public Object[] convertedArguments(StepMatch match) {
+        return line.convertedArguments(match);
+    }
+
+    @Override
+    public String sentence() {
+        return line.getSentence();
+    }
+}
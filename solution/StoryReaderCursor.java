@@ -0,0 +1,108 @@
+package solution;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+
+/**
+ * A StoryCursor that reads the story from a Reader, one line at a time.
+ * Only the current line is kept in memory, so stories of any length can be
+ * run in constant memory (as long as their lines are of reasonable length).
+ */
+final class StoryReaderCursor implements StoryCursor {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    private final StringBuilder lineBuffer = new StringBuilder();
+    private final StoryScanner scanner = new StoryScanner(lineBuffer);
+    private int pendingEmptyLines;
+
+    StoryReaderCursor(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Reads the next line into lineBuffer. Returns false at the end of the story **/
+    private boolean readLine() throws IOException {
+        lineBuffer.setLength(0);
+        boolean readAnything = false;
+        while (true) {
+            if (position >= limit) {
+                if (eof) return readAnything;
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit < 0) {
+                    limit = 0;
+                    eof = true;
+                    return readAnything;
+                }
+            }
+            readAnything = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') position++;
+            lineBuffer.append(buffer, start, position - start);
+            if (position < limit) {
+                position++; // Skip the '\n'
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves to the next line of the story. Like String.split("\n"), trailing empty
+     * lines are ignored.
+     *
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    @Override
+    public boolean next() throws IOException {
+        while (readLine()) {
+            if (lineBuffer.length() == 0) {
+                // Only an error if a non empty line follows it.
+                pendingEmptyLines++;
+                continue;
+            }
+            if (pendingEmptyLines > 0) throw new IllegalArgumentException("Empty story line");
+            scanner.reset();
+            return scanner.next();
+        }
+        return false;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationClass() {
+        return scanner.annotationClass();
+    }
+
+    @Override
+    public CharSequence sentenceSub() {
+        return scanner.sentenceSub();
+    }
+
+    @Override
+    public CharSequence text() {
+        return scanner.text();
+    }
+
+    @Override
+    public int sentenceStart() {
+        return scanner.sentenceStart();
+    }
+
+    @Override
+    public Object[] convertedArguments(StepMatch match) {
+        return null;
+    }
+
+    @Override
+    public int sentenceEnd() {
+        return scanner.sentenceEnd();
+    }
+
+    @Override
+    public String sentence() {
+        return scanner.sentence();
+    }
+}
@@ -0,0 +1,113 @@
+package solution;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * The outcome of running a story, reported without throwing: either every line
+ * ran (and some Then sentences may have failed), or a line had no matching step.
+ * The details of the failures are the same as those of StoryTestExceptionImpl.
+ * A run may also have been stopped early by the ExecutionPolicy of the tester.
+ */
+public final class StoryResult {
+    private final String firstFailedSentence;
+    private final String expected;
+    private final String result;
+    private final int numFails;
+    private final FailedThens failedThens;
+    private final int numFieldsRestored;
+    private final int numLinesRun;
+    private final StopReason stopReason;
+    private final String timedOutSentence;
+    private final Class<? extends Annotation> missingStep;
+    private final String missingSentence;
+
+    StoryResult(String firstFailedSentence, String expected, String result, int numFails, FailedThens failedThens,
+                int numFieldsRestored, int numLinesRun, StopReason stopReason, String timedOutSentence,
+                Class<? extends Annotation> missingStep, String missingSentence) {
+        this.firstFailedSentence = firstFailedSentence;
+        this.expected = expected;
+        this.result = result;
+        this.numFails = numFails;
+        this.failedThens = failedThens;
+        this.numFieldsRestored = numFieldsRestored;
+        this.numLinesRun = numLinesRun;
+        this.stopReason = stopReason;
+        this.timedOutSentence = timedOutSentence;
+        this.missingStep = missingStep;
+        this.missingSentence = missingSentence;
+    }
+
+    /**
+     * Returns true if every line had a step, no Then sentence failed and the run was not
+     * stopped early. A run stopped by a budget or a timeout did not run the whole story,
+     * so it did not pass even if nothing failed before the stop.
+     */
+    public boolean passed() {
+        return missingStep == null && numFails == 0 && stopReason == null;
+    }
+
+    /**
+     * Returns the annotation (Given, When or Then) of the first line that had no matching
+     * step, or null if every line had one. The story stops at that line.
+     */
+    public Class<? extends Annotation> getMissingStep() {
+        return missingStep;
+    }
+
+    /** Returns the first line that had no matching step, or null if every line had one **/
+    public String getMissingSentence() {
+        return missingSentence;
+    }
+
+    /** Returns the first Then sentence that failed, or null if none did **/
+    public String getSentence() {
+        return firstFailedSentence;
+    }
+
+    /** Returns the expected value from the story of the first Then sentence that failed **/
+    public String getStoryExpected() {
+        return expected;
+    }
+
+    /** Returns the actual value of the first Then sentence that failed **/
+    public String getTestResult() {
+        return result;
+    }
+
+    /** Returns the number of Then sentences that failed **/
+    public int getNumFail() {
+        return numFails;
+    }
+
+    /**
+     * Returns the number of fields of the test instance that the first failure restored from the
+     * backup of its When block - the fields the block changed, as unchanged fields are not written.
+     * 0 if no Then sentence failed.
+     */
+    public int getNumFieldsRestored() {
+        return numFieldsRestored;
+    }
+
+    /** Returns the number of lines that ran, including failed lines but not a line without a step **/
+    public int getNumLinesRun() {
+        return numLinesRun;
+    }
+
+    /** Returns why the run stopped before the end of the story, or null if it did not **/
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Returns the line whose step timed out, or null if no step did.
+     * A story timeout that expired between steps has no such line.
+     */
+    public String getTimedOutSentence() {
+        return timedOutSentence;
+    }
+
+    /** Returns every Then sentence that failed, in order **/
+    public FailedThens getFailedThens() {
+        return failedThens;
+    }
+}
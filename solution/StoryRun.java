@@ -0,0 +1,190 @@
+package solution;
+
+import org.junit.ComparisonFailure;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The state of a single run of a story on a single test instance.
+ * Every run gets its own StoryRun, so StoryTesterImpl itself holds no
+ * per-run state and a single tester can run stories on many threads at once.
+ */
+final class StoryRun {
+    final Object testInstance;
+
+    /** Created by the first When block, and copied into by every later one **/
+    private Object objectBackup;
+    private boolean inWhen;
+
+    private String firstFailedSentence;
+    private String expected;
+    private String result;
+    private int numFails;
+    private final FailedThens failedThens;
+    /** The number of fields the first failure restored **/
+    private int numFieldsRestored;
+    /** The number of lines that started running **/
+    private int numLines;
+
+    private final ExecutionPolicy policy;
+    private final long startNanos;
+    private final long startCpuNanos;
+    /** The wall-clock time the CPU time of the run was last read at **/
+    private long lastCpuCheckNanos;
+    private StopReason stopReason;
+    private String timedOutSentence;
+    /** The watch of the step and story timeouts, or null if the policy has none **/
+    private final StoryWatchdog.Watch watch;
+
+    StoryRun(Object testInstance, ExecutionPolicy policy) {
+        this.testInstance = testInstance;
+        this.failedThens = new FailedThens();
+        this.policy = policy;
+        this.startNanos = policy.hasBudget() ? System.nanoTime() : 0;
+        this.startCpuNanos = policy.hasCpuBudget() ? ExecutionPolicy.currentThreadCpuTime() : 0;
+        this.lastCpuCheckNanos = startNanos;
+        this.watch = policy.watch();
+    }
+
+    /** A copy of the state of other, on the same test instance. Only for runs without timeouts **/
+    private StoryRun(StoryRun other) throws Exception {
+        this.testInstance = other.testInstance;
+        // The copy may restore from its backup after other already did, so it needs its own.
+        this.objectBackup = other.objectBackup == null ? null : StoryTesterImpl.backUpInstance(other.objectBackup);
+        this.inWhen = other.inWhen;
+        this.firstFailedSentence = other.firstFailedSentence;
+        this.expected = other.expected;
+        this.result = other.result;
+        this.numFails = other.numFails;
+        this.failedThens = other.failedThens.copy();
+        this.numFieldsRestored = other.numFieldsRestored;
+        this.numLines = other.numLines;
+        this.policy = other.policy;
+        this.startNanos = other.startNanos;
+        this.startCpuNanos = other.startCpuNanos;
+        this.lastCpuCheckNanos = other.lastCpuCheckNanos;
+        this.stopReason = other.stopReason;
+        this.watch = null;
+    }
+
+    /**
+     * Returns a copy of the state of this run, which goes on from this point independently of it.
+     * The test instance is shared; its state must be saved and restored by the caller.
+     */
+    StoryRun copy() throws Exception {
+        return new StoryRun(this);
+    }
+
+    /** Counts lines that did not run, since the instance already is in the state they lead to **/
+    void skipLines(int count) {
+        numLines += count;
+    }
+
+    /** Returns true if no line failed and the run was not stopped so far **/
+    boolean passedSoFar() {
+        return numFails == 0 && stopReason == null;
+    }
+
+    /** Must be called right before the step of a line is invoked **/
+    void startStep() {
+        if (watch != null) watch.startStep();
+    }
+
+    /**
+     * Invokes step on the test instance with the arguments of the matched line (see Step.invoke),
+     * between startStep() and endStep(). If the policy abandons timed out steps, the step runs on
+     * a worker thread, with its arguments converted beforehand.
+     */
+    void invoke(Step step, StepMatch match, Object[] converted, InvocationMode mode) throws Exception {
+        if (watch == null || !watch.abandonsTimedOutSteps()) {
+            step.invoke(testInstance, match, converted, mode);
+            return;
+        }
+        Object[] arguments = converted != null ? converted : step.convert(match);
+        watch.invoke(() -> {
+            step.invoke(testInstance, match, arguments, mode);
+            return null;
+        });
+    }
+
+    /** Must be called right after the step of a line returned or threw. Returns true if the step timed out **/
+    boolean endStep(StoryCursor line) {
+        if (watch == null) return false;
+        StopReason timeout = watch.endStep();
+        if (timeout == null) return false;
+        stopReason = timeout;
+        timedOutSentence = line.sentence();
+        return true;
+    }
+
+    /** Must be called when the run ends, however it ends **/
+    void close() {
+        if (watch != null) watch.close();
+    }
+
+    /** Must be called before each line is invoked. Backs up the instance when a When block starts **/
+    void beforeLine(Class<? extends Annotation> annotationClass) throws Exception {
+        numLines++;
+        if (annotationClass == When.class && !inWhen) {
+            if (objectBackup == null) {
+                objectBackup = StoryTesterImpl.backUpInstance(testInstance);
+            } else {
+                // A restore only takes references from the backup, and copying into it replaces
+                // them, so the backup of the previous block can be reused in place.
+                StoryTesterImpl.backUpInstanceInto(testInstance, objectBackup);
+            }
+            inWhen = true;
+        }
+        if (annotationClass == Then.class) {
+            inWhen = false;
+        }
+    }
+
+    /** Records that the current line of the story failed **/
+    void failed(StoryCursor line, InvocationTargetException e) throws Exception {
+        numFails++;
+        if (numFails == 1) {
+            numFieldsRestored = StoryTesterImpl.restoreInstance(testInstance, objectBackup);
+            firstFailedSentence = line.sentence();
+            expected = ((ComparisonFailure) e.getCause()).getExpected();
+            result = ((ComparisonFailure) e.getCause()).getActual();
+            failedThens.add(numLines - 1, expected, result);
+        } else if (e.getCause() instanceof ComparisonFailure) {
+            ComparisonFailure failure = (ComparisonFailure) e.getCause();
+            failedThens.add(numLines - 1, failure.getExpected(), failure.getActual());
+        } else {
+            failedThens.add(numLines - 1, null, null);
+        }
+    }
+
+    /** Must be called after each line. Returns true if the policy of the run stops it here **/
+    boolean shouldStop() {
+        boolean readCpuTime = false;
+        if (policy.hasCpuBudget()) {
+            long now = System.nanoTime();
+            if (now - lastCpuCheckNanos >= ExecutionPolicy.CPU_CHECK_INTERVAL_NANOS) {
+                readCpuTime = true;
+                lastCpuCheckNanos = now;
+            }
+        }
+        stopReason = policy.check(numFails, startNanos, startCpuNanos, readCpuTime);
+        if (stopReason == null && watch != null && watch.storyTimedOut()) stopReason = StopReason.STORY_TIMEOUT;
+        return stopReason != null;
+    }
+
+    /**
+     * Returns the result of a run that reached the end of the story, or was stopped by its policy.
+     * The result holds a copy of the failures so far, since a shared run may go on recording.
+     */
+    StoryResult result() {
+        return new StoryResult(firstFailedSentence, expected, result, numFails, failedThens.copy(), numFieldsRestored,
+                numLines, stopReason, timedOutSentence, null, null);
+    }
+
+    /** Returns the result of a run that stopped at a line without a matching step **/
+    StoryResult missingStep(StoryCursor line) {
+        return new StoryResult(firstFailedSentence, expected, result, numFails, failedThens, numFieldsRestored,
+                numLines, null, null, line.annotationClass(), line.sentence());
+    }
+}
@@ -0,0 +1,126 @@
+package solution;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * A single pass, zero-copy tokenizer over the text of a story.
+ * Each line is described by offsets into the story; the sentence without
+ * its parameter is exposed as a view, and Strings are only created when a
+ * step actually needs an argument or the whole line as a String.
+ */
+final class StoryScanner implements StoryCursor {
+    private final CharSequence story;
+    private final CharSpan sentenceSub = new CharSpan();
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+    private int keywordEnd;
+    private int parameterStart;
+    private Class<? extends Annotation> annotationClass;
+
+    StoryScanner(CharSequence story) {
+        this.story = story;
+    }
+
+    /** Starts scanning the story from its beginning again (its content may have changed) **/
+    void reset() {
+        position = 0;
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (story.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private int lastIndexOf(char c, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (story.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    /** Returns true if the rest of the story contains only line breaks **/
+    private boolean onlyLineBreaksFrom(int from) {
+        for (int i = from; i < story.length(); i++) {
+            if (story.charAt(i) != '\n') return false;
+        }
+        return true;
+    }
+
+    private static Class<? extends Annotation> annotationClass(CharSpan keyword) {
+        if (keyword.contentEquals("Given")) return Given.class;
+        if (keyword.contentEquals("When")) return When.class;
+        if (keyword.contentEquals("Then")) return Then.class;
+        return null;
+    }
+
+    /**
+     * Moves to the next line of the story. Like String.split("\n"), trailing empty
+     * lines are ignored.
+     *
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    @Override
+    public boolean next() {
+        int length = story.length();
+        if (position >= length || onlyLineBreaksFrom(position)) return false;
+        lineStart = position;
+        int end = indexOf('\n', lineStart, length);
+        lineEnd = end < 0 ? length : end;
+        position = lineEnd + 1;
+
+        keywordEnd = indexOf(' ', lineStart, lineEnd);
+        parameterStart = lastIndexOf(' ', lineStart, lineEnd);
+        if (keywordEnd < 0 || parameterStart == keywordEnd) {
+            throw new IllegalArgumentException("Bad story line: " + sentence());
+        }
+        annotationClass = annotationClass(sentenceSub.set(story, lineStart, keywordEnd));
+        if (annotationClass == null) {
+            throw new IllegalArgumentException("Bad annotation name: " + sentenceSub);
+        }
+        sentenceSub.set(story, keywordEnd + 1, parameterStart);
+        return true;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationClass() {
+        return annotationClass;
+    }
+
+    @Override
+    public CharSequence sentenceSub() {
+        return sentenceSub;
+    }
+
+    /** Returns the parameter (the last word) of the current line **/
+    String parameter() {
+        return story.subSequence(parameterStart + 1, lineEnd).toString();
+    }
+
+    @Override
+    public CharSequence text() {
+        return story;
+    }
+
+    @Override
+    public int sentenceStart() {
+        return keywordEnd + 1;
+    }
+
+    @Override
+    public Object[] convertedArguments(StepMatch match) {
+        return null;
+    }
+
+    @Override
+    public int sentenceEnd() {
+        return lineEnd;
+    }
+
+    @Override
+    public String sentence() {
+        return story.subSequence(lineStart, lineEnd).toString();
+    }
+}
@@ -6,13 +6,21 @@ public class StoryTestExceptionImpl extends StoryTestException {
     String expected;
     String result;
     int numFails;
+    FailedThens failedThens;
+    int numLinesRun = -1;
 
     public StoryTestExceptionImpl(String sentence, String expected_str, String result_str, int fails)
+    {
+        this(sentence, expected_str, result_str, fails, null);
+    }
+
+    StoryTestExceptionImpl(String sentence, String expected_str, String result_str, int fails, FailedThens failed)
     {
         firstFailedSentence = sentence;
         expected = expected_str;
         result = result_str;
         numFails = fails;
+        failedThens = failed;
     }
 
     /**
@@ -49,4 +57,23 @@ public class StoryTestExceptionImpl extends StoryTestException {
     {
         return numFails;
     }
+
+    /**
+     * Returns the number of lines of the story that ran - fewer than the whole
+     * story if the run was stopped by its ExecutionPolicy - or -1 if this
+     * exception was not thrown by the tester.
+     */
+    public int getNumLinesRun()
+    {
+        return numLinesRun;
+    }
+
+    /**
+     * Returns every Then sentence that failed, in order,
+     * or null if this exception was not thrown by the tester.
+     */
+    public FailedThens getFailedThens()
+    {
+        return failedThens;
+    }
 }
\ No newline at end of file
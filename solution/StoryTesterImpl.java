@@ -1,121 +1,159 @@
 package solution;
 
-import org.junit.ComparisonFailure;
 import provided.*;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class StoryTesterImpl implements StoryTester {
 
-    private Object objectBackup;
+    private final InvocationMode invocationMode;
+    private final ExceptionMode exceptionMode;
+    private final ExecutionPolicy executionPolicy;
+    /** null if fixtures are not cached **/
+    private final FixtureCache fixtureCache;
+    private final InstantiationMode instantiationMode;
+    /** null if the steps are not timed **/
+    private final StepTimings stepTimings;
 
-    String firstFailedSentence;
-    String expected;
-    String result;
-    int numFails;
+    /**
+     * Creates a tester with the default configuration: steps invoked through MethodHandles,
+     * exceptions with stack traces, every story run to its end on a new instance created by
+     * the default constructor, no fixture cache and no step timings.
+     * The with* methods return a tester configured otherwise.
+     */
+    public StoryTesterImpl() {
+        this(InvocationMode.METHOD_HANDLE, ExceptionMode.STACK_TRACES, ExecutionPolicy.RUN_TO_END, null,
+                InstantiationMode.CONSTRUCTOR, null);
+    }
 
-    /** Creates and returns a new instance of testClass **/
-    private static Object createTestInstance(Class<?> testClass) throws Exception {
-        // This method uses only the default constructor.
-        if (!testClass.isMemberClass() || Modifier.isStatic(testClass.getModifiers())) {
-            Constructor<?> ctor = testClass.getDeclaredConstructor();
-            ctor.setAccessible(true);
-            return ctor.newInstance();
-        } else {
-            // Enclosed non-static classes have a secret parameter - their enclosing instance.
-            // Create an enclosing instance:
-            Class<?> enclosing = testClass.getEnclosingClass();
-            Object enclosingInstance = createTestInstance(enclosing);
-            Constructor<?> ctor = testClass.getDeclaredConstructor(enclosing);
-            ctor.setAccessible(true);
-            return ctor.newInstance(enclosingInstance);
-        }
+    private StoryTesterImpl(InvocationMode invocationMode, ExceptionMode exceptionMode, ExecutionPolicy executionPolicy,
+                            FixtureCache fixtureCache, InstantiationMode instantiationMode, StepTimings stepTimings) {
+        this.invocationMode = invocationMode;
+        this.exceptionMode = exceptionMode;
+        this.executionPolicy = executionPolicy;
+        this.fixtureCache = fixtureCache;
+        this.instantiationMode = instantiationMode;
+        this.stepTimings = stepTimings;
     }
 
-    /** Returns true if c has a copy constructor, or false if it doesn't **/
-    private boolean copyConstructorExists(Class<?> c){
-        try {
-            c.getDeclaredConstructor(c);
-            return true;
-        } catch (NoSuchMethodException e) {
-            return false;
-        }
+    /**
+     * Returns a tester like this one, that invokes the step methods using the given mode.
+     *
+     * @throws IllegalArgumentException if invocationMode is null.
+     */
+    public StoryTesterImpl withInvocationMode(InvocationMode invocationMode) {
+        if (invocationMode == null) throw new IllegalArgumentException();
+        return new StoryTesterImpl(invocationMode, exceptionMode, executionPolicy, fixtureCache, instantiationMode,
+                stepTimings);
     }
 
-    private Method getCloneMethod(Class<?> c) {
-        if (c == Object.class) return null;
+    /**
+     * Returns a tester like this one, that creates its exceptions using the given mode.
+     *
+     * @throws IllegalArgumentException if exceptionMode is null.
+     */
+    public StoryTesterImpl withExceptionMode(ExceptionMode exceptionMode) {
+        if (exceptionMode == null) throw new IllegalArgumentException();
+        return new StoryTesterImpl(invocationMode, exceptionMode, executionPolicy, fixtureCache, instantiationMode,
+                stepTimings);
+    }
 
-        try {
-            return c.getDeclaredMethod("clone");
-        } catch (NoSuchMethodException e) {
-            return getCloneMethod(c.getSuperclass());
-        }
+    /**
+     * Returns a tester like this one, that stops its runs as the given policy decides.
+     * A run stopped by the policy throws (or returns) the failures found up to that point,
+     * except that a run stopped by a timeout throws a StoryTimeoutException, and a run stopped
+     * by a budget before any failure throws a StoryBudgetExceededException.
+     *
+     * @throws IllegalArgumentException if executionPolicy is null.
+     */
+    public StoryTesterImpl withExecutionPolicy(ExecutionPolicy executionPolicy) {
+        if (executionPolicy == null) throw new IllegalArgumentException();
+        return new StoryTesterImpl(invocationMode, exceptionMode, executionPolicy, fixtureCache, instantiationMode,
+                stepTimings);
     }
 
-    /** Assigns into objectBackup a backup of obj.
-     /** See homework's pdf for more details on backing up and restoring **/
-    private void backUpInstance(Object obj) throws Exception {
-        Object res = createTestInstance(obj.getClass());
-        Field[] fieldsArr = obj.getClass().getDeclaredFields();
-        for(Field field : fieldsArr){
-            field.setAccessible(true);
-            Object fieldObject = field.get(obj);
-            if (fieldObject == null) {
-                field.set(res, null);
-                continue;
-            }
-            Class<?> fieldClass = fieldObject.getClass();
-
-            // getDeclaredMethod vs getMethod:
-            // getDeclaredMethod can access private/protected. getMethod can access inherited.
-            Object fieldObjectClone;
-            if(fieldObject instanceof Cloneable){
-                // field.set(res, fieldObject.clone());
-                // This doesn't work: why? because .clone() is protected! Let's use reflection:
-                Method clone = getCloneMethod(fieldClass);
-                if (clone == null) throw new RuntimeException("This cloneable class is not cloneable!");
-                clone.setAccessible(true);
-                fieldObjectClone = clone.invoke(fieldObject);
-            }
-            else if(copyConstructorExists(fieldClass)){
-                Constructor<?> cons = fieldClass.getDeclaredConstructor(fieldClass);
-                cons.setAccessible(true);
-                fieldObjectClone = cons.newInstance(fieldObject);
-            }
-            else{
-                fieldObjectClone = fieldObject;
-            }
-            field.setAccessible(true);
-            field.set(res, fieldObjectClone);
-        }
-        this.objectBackup = res;
+    /**
+     * Returns a tester like this one, whose stories that start with Given lines start from a copy
+     * of the fixture cached for them in fixtureCache, if there is one; or that does not cache
+     * fixtures if fixtureCache is null.
+     */
+    public StoryTesterImpl withFixtureCache(FixtureCache fixtureCache) {
+        return new StoryTesterImpl(invocationMode, exceptionMode, executionPolicy, fixtureCache, instantiationMode,
+                stepTimings);
+    }
+
+    /**
+     * Returns a tester like this one, that creates the test instances of its stories using the given mode.
+     *
+     * @throws IllegalArgumentException if instantiationMode is null.
+     */
+    public StoryTesterImpl withInstantiationMode(InstantiationMode instantiationMode) {
+        if (instantiationMode == null) throw new IllegalArgumentException();
+        return new StoryTesterImpl(invocationMode, exceptionMode, executionPolicy, fixtureCache, instantiationMode,
+                stepTimings);
+    }
+
+    /**
+     * Returns a tester like this one, that also records the duration of every step it invokes
+     * into stepTimings, or that does not time its steps if stepTimings is null.
+     */
+    public StoryTesterImpl withStepTimings(StepTimings stepTimings) {
+        return new StoryTesterImpl(invocationMode, exceptionMode, executionPolicy, fixtureCache, instantiationMode,
+                stepTimings);
+    }
+
+    /** Creates and returns a new instance of testClass **/
+    static Object createTestInstance(Class<?> testClass) throws Exception {
+        // The constructors are resolved once per class, see InstanceFactory.
+        return InstanceFactory.of(testClass).newInstance();
+    }
+
+    /** Creates the instance of testClass a story runs on, using the instantiation mode **/
+    private Object newStoryInstance(Class<?> testClass) throws Exception {
+        InstanceFactory factory = InstanceFactory.of(testClass);
+        return instantiationMode == InstantiationMode.TEMPLATE_CLONE
+                ? factory.newInstanceFromTemplate() : factory.newInstance();
+    }
+
+    /**
+     * Returns the backup of a single field value: a clone if the value is Cloneable,
+     * a copy if its class has a copy constructor, or the value itself otherwise.
+     * The decision is made once per runtime class, see CopyStrategy.
+     */
+    static Object copyFieldValue(Object fieldObject) throws Exception {
+        if (fieldObject == null) return null;
+        return CopyStrategy.of(fieldObject.getClass()).copy(fieldObject);
     }
 
-    /** Assigns into obj's fields the values in objectBackup fields.
+    /** Returns a backup of obj.
      /** See homework's pdf for more details on backing up and restoring **/
-    private void restoreInstance(Object obj) throws Exception{
-        Field[] classFields = obj.getClass().getDeclaredFields();
-        for(Field field : classFields) {
-            field.setAccessible(true);
-            Object value = field.get(this.objectBackup);
-            field.set(obj, value);
-        }
+    static Object backUpInstance(Object obj) throws Exception {
+        return InstanceCopier.of(obj.getClass()).backUp(obj);
     }
 
-    /** Returns the matching annotation class according to annotationName (Given, When or Then) **/
-    private static Class<? extends Annotation> GetAnnotationClass(String annotationName){
-        switch (annotationName) {
-            case "Given":
-                return Given.class;
-            case "When":
-                return When.class;
-            case "Then":
-                return Then.class;
-            default:
-                return null;
-        }
+    /**
+     * Same as backUpInstance(obj), but copies into objectBackup, a previous backup of an instance
+     * of the same class, instead of creating a new instance.
+     */
+    static void backUpInstanceInto(Object obj, Object objectBackup) throws Exception {
+        InstanceCopier.of(obj.getClass()).backUpInto(objectBackup, obj);
+    }
+
+    /** Assigns into obj's fields the values in objectBackup fields, and returns how many fields changed.
+     /** See homework's pdf for more details on backing up and restoring **/
+    static int restoreInstance(Object obj, Object objectBackup) throws Exception{
+        return InstanceCopier.of(obj.getClass()).restore(obj, objectBackup);
     }
 
     static String getAnnotatedSentence(Method method, Class<? extends Annotation> annotationClass) {
@@ -133,136 +171,223 @@ public class StoryTesterImpl implements StoryTester {
     }
 
     static Method findMethodByAnnotation(Class<?> c, Class<? extends Annotation> annotationClass, String sentenceSub) {
-        for (Method method : c.getDeclaredMethods()) {
-            // Is this annotated?
-            String sentence = getAnnotatedSentence(method, annotationClass);
-            if (sentence == null) continue;
-
-            // Is this annotated the same as sentenceSub?
-            int end = sentence.lastIndexOf(' ');
-            String sentenceWithoutParameter = sentence.substring(0, end);
-            if (!sentenceWithoutParameter.equals(sentenceSub)) continue;
+        // Any word will do as the parameter.
+        String sentence = sentenceSub + " _";
+        StepMatch match = new StepMatch();
+        return findStep(c, annotationClass, sentence, 0, sentence.length(), match) ? match.step.method : null;
+    }
 
-            // TODO: Do we need to check the parameter of the annotated method too?
+    /**
+     * Matches the sentence in text between start and end (without the annotation name) against
+     * the steps of c and its ancestors. Returns true and fills match if a step was found.
+     */
+    static boolean findStep(Class<?> c, Class<? extends Annotation> annotationClass,
+                            CharSequence text, int start, int end, StepMatch match) {
+        match.reset(text);
+        return StepRegistry.of(c).find(annotationClass, text, start, end, match);
+    }
 
-            return method;
-        }
-        // Method was not found in this class!
-        // Maybe up above?
-        return (c.getSuperclass() != null) ?
-                findMethodByAnnotation(c.getSuperclass(), annotationClass, sentenceSub) :
-                null;
+    /** Matches the current line of the cursor against the steps of c and its ancestors **/
+    static boolean findStep(Class<?> c, Class<? extends Annotation> annotationClass, StoryCursor line, StepMatch match) {
+        return findStep(c, annotationClass, line.text(), line.sentenceStart(), line.sentenceEnd(), match);
     }
 
     WordNotFoundException newWordNotFoundException(String annotationName) {
+        boolean stackless = exceptionMode == ExceptionMode.STACKLESS;
         switch (annotationName) {
             case "When":
-                return new WhenNotFoundException();
+                return stackless ? new StacklessExceptions.When() : new WhenNotFoundException();
             case "Then":
-                return new ThenNotFoundException();
+                return stackless ? new StacklessExceptions.Then() : new ThenNotFoundException();
             case "Given":
-                return new GivenNotFoundException();
+                return stackless ? new StacklessExceptions.Given() : new GivenNotFoundException();
             default:
                 throw new InvalidParameterException("Bad annotation name!");
         }
     }
 
-    static Object parseParameter(String parameter) {
-        try {
-            return Integer.parseInt(parameter);
-        } catch (NumberFormatException e) {
-            return parameter;
+    /** Throws the exception that describes a story result that did not pass **/
+    private void throwIfFailed(StoryResult result) throws Exception {
+        if (result.getStopReason() == StopReason.STEP_TIMEOUT || result.getStopReason() == StopReason.STORY_TIMEOUT) {
+            throw new StoryTimeoutException(result);
         }
-    }
-    private Method match(Class<?> testClass, Class<? extends Annotation> annot_class, String sentenceSub) throws WordNotFoundException {
-        for (Method meth : testClass.getDeclaredMethods()) {
-            if (meth.isAnnotationPresent(annot_class)) {
-                //check if the method has the right sentence
-                try {
-                    // extracting the value from the annotation's object
-                    String value = (String) annot_class.getMethod("value").invoke(meth.getAnnotation(annot_class));
-                    if (value.substring(0, value.lastIndexOf(" ")).equals(sentenceSub)) {
-                        return meth;
-                    }
-                }
-                catch(Exception ignored) {}
-            }
+        if (result.getMissingStep() != null) {
+            //check which exception to throw
+            throw newWordNotFoundException(result.getMissingStep().getSimpleName());
+        }
+        if (result.getNumFail() > 0) {
+            StoryTestExceptionImpl e = exceptionMode == ExceptionMode.STACKLESS
+                    ? new StacklessExceptions.StoryTest(result.getSentence(), result.getStoryExpected(),
+                            result.getTestResult(), result.getNumFail(), result.getFailedThens())
+                    : new StoryTestExceptionImpl(result.getSentence(), result.getStoryExpected(),
+                            result.getTestResult(), result.getNumFail(), result.getFailedThens());
+            e.numLinesRun = result.getNumLinesRun();
+            throw e;
         }
-        Class<?> superc = testClass.getSuperclass();
-        if (superc != null) {
-            return match(superc, annot_class, sentenceSub);
-        } else {
-           //check which exception to throw
-            throw newWordNotFoundException(annot_class.getSimpleName());
+        if (result.getStopReason() == StopReason.WALL_CLOCK_BUDGET || result.getStopReason() == StopReason.CPU_BUDGET) {
+            throw new StoryBudgetExceededException(result);
         }
     }
     @Override
     public void testOnInheritanceTree(String story, Class<?> testClass) throws Exception {
+        throwIfFailed(runOnInheritanceTree(story, testClass));
+    }
+
+    /** Same as testOnInheritanceTree(String, Class), for a story that was already compiled **/
+    public void testOnInheritanceTree(CompiledStory story, Class<?> testClass) throws Exception {
+        throwIfFailed(runOnInheritanceTree(story, testClass));
+    }
+
+    /**
+     * Same as testOnInheritanceTree(String, Class), but the story is read from story
+     * line by line while it runs, so it never has to be held in memory as a whole.
+     * The reader is not closed.
+     */
+    public void testOnInheritanceTree(Reader story, Class<?> testClass) throws Exception {
         if ((story == null) || testClass == null) throw new IllegalArgumentException();
-        //initialize storyTestException values as local variables
-        int numFailsLocal = 0;
-        String firstFailedSentenceLocal = null;
-        String expectedLocal = null;
-        String resultLocal = null;
-        Object testInstance = createTestInstance(testClass);
-        boolean in_when = false;
-        for (String sentence : story.split("\n")) {
-            String[] words = sentence.split(" ", 2);
-            String annotationName = words[0];
-            Class<? extends Annotation> annotationClass = GetAnnotationClass(annotationName);
-            String sentenceSub = words[1].substring(0, words[1].lastIndexOf(' ')); // Sentence without the parameter and annotation
-            String parameter = sentence.substring(sentence.lastIndexOf(' ') + 1);
-            Method method = match(testClass, annotationClass, sentenceSub);
-            if (annotationName.equals("When") && !in_when) {
-                backUpInstance(testInstance);
-                in_when = true;
-            }
-            if (annotationName.equals("Then")) {
-                in_when = false;
+        throwIfFailed(runStory(new StoryReaderCursor(story), testClass));
+    }
+
+    /** Same as testOnInheritanceTree(Reader, Class), for a UTF-8 encoded stream. The stream is not closed **/
+    public void testOnInheritanceTree(InputStream story, Class<?> testClass) throws Exception {
+        if ((story == null) || testClass == null) throw new IllegalArgumentException();
+        testOnInheritanceTree(new InputStreamReader(story, StandardCharsets.UTF_8), testClass);
+    }
+
+    /** Same as testOnInheritanceTree(Reader, Class), for a UTF-8 encoded story file **/
+    public void testOnInheritanceTree(Path story, Class<?> testClass) throws Exception {
+        if ((story == null) || testClass == null) throw new IllegalArgumentException();
+        try (Reader reader = Files.newBufferedReader(story, StandardCharsets.UTF_8)) {
+            testOnInheritanceTree(reader, testClass);
+        }
+    }
+
+    /**
+     * Same as testOnInheritanceTree(String, Class), but reports the failed Then sentences
+     * and a missing step in the returned StoryResult instead of throwing, so a failing story
+     * creates no exceptions at all. Other errors (a malformed story, a test class that cannot
+     * be instantiated, a step that throws anything but a ComparisonFailure) are still thrown.
+     */
+    public StoryResult runOnInheritanceTree(String story, Class<?> testClass) throws Exception {
+        if ((story == null) || testClass == null) throw new IllegalArgumentException();
+        return runStory(new StoryScanner(story), testClass);
+    }
+
+    /** Same as runOnInheritanceTree(String, Class), for a story that was already compiled **/
+    public StoryResult runOnInheritanceTree(CompiledStory story, Class<?> testClass) throws Exception {
+        if ((story == null) || testClass == null) throw new IllegalArgumentException();
+        return runStory(story.cursor(), testClass);
+    }
+
+    /** Runs the lines of the story, as given by the cursor, on a new instance of testClass **/
+    private StoryResult runStory(StoryCursor line, Class<?> testClass) throws Exception {
+        boolean more = line.next();
+        List<StoryLine> givens = null;
+        FixtureCache.Key key = null;
+        Object fixture = null;
+        if (fixtureCache != null && more && line.annotationClass() == Given.class) {
+            // Read the Given lines the story starts with, to look up their fixture.
+            givens = new ArrayList<>();
+            do {
+                givens.add(StoryLine.of(line));
+                more = line.next();
+            } while (more && line.annotationClass() == Given.class);
+            String[] sentences = new String[givens.size()];
+            for (int i = 0; i < sentences.length; i++) {
+                sentences[i] = givens.get(i).getSentence();
             }
-            method.setAccessible(true);
-            try {
-                // check if a method takes parameter as string or integer
-                if (method.getParameterTypes()[0].equals(String.class)) {
-                    method.invoke(testInstance, parameter);
-                } else {
-                    method.invoke(testInstance, Integer.parseInt(parameter));
-                }
-            } catch (InvocationTargetException e) {
-                numFailsLocal++;
-                if (numFailsLocal == 1) {
-                    restoreInstance(testInstance);
-                    firstFailedSentenceLocal = sentence;
-                    expectedLocal = ((ComparisonFailure) e.getCause()).getExpected();
-                    resultLocal = ((ComparisonFailure) e.getCause()).getActual();
+            key = new FixtureCache.Key(testClass, sentences);
+            fixture = fixtureCache.get(key);
+        }
+        StoryRun run = new StoryRun(fixture != null ? fixture : newStoryInstance(testClass), executionPolicy);
+        try {
+            StepMatch match = new StepMatch();
+            if (fixture != null) {
+                run.skipLines(givens.size());
+            } else if (givens != null) {
+                StoryLineCursor given = new StoryLineCursor(Collections.emptyList());
+                for (StoryLine givenLine : givens) {
+                    StoryResult stopped = runLine(run, given.at(givenLine), testClass, match);
+                    if (stopped != null) return stopped;
                 }
+                if (run.passedSoFar()) fixtureCache.put(key, run.testInstance);
+            }
+            for (; more; more = line.next()) {
+                StoryResult stopped = runLine(run, line, testClass, match);
+                if (stopped != null) return stopped;
             }
+            return run.result();
+        } finally {
+            run.close();
         }
-        if (numFailsLocal > 0) {
-            throw new StoryTestExceptionImpl(firstFailedSentenceLocal, expectedLocal, resultLocal, numFailsLocal);
+    }
+
+    /** Runs the current line of the cursor. Returns the result of the run if it stops here, or null **/
+    private StoryResult runLine(StoryRun run, StoryCursor line, Class<?> testClass, StepMatch match) throws Exception {
+        Class<? extends Annotation> annotationClass = line.annotationClass();
+        if (!findStep(testClass, annotationClass, line, match)) return run.missingStep(line);
+        run.beforeLine(annotationClass);
+        InvocationTargetException failure = null;
+        run.startStep();
+        long start = stepTimings == null ? 0 : System.nanoTime();
+        try {
+            run.invoke(match.step, match, line.convertedArguments(match), invocationMode);
+        } catch (InvocationTargetException e) {
+            failure = e;
+        } finally {
+            if (stepTimings != null) {
+                stepTimings.record(testClass, match.step.sentence(annotationClass), System.nanoTime() - start);
+            }
         }
+        // A step that timed out stops the run, whether it failed or not.
+        if (run.endStep(line)) return run.result();
+        if (failure != null) run.failed(line, failure);
+        return run.shouldStop() ? run.result() : null;
     }
 
 
     @Override
     public void testOnNestedClasses(String story, Class<?> testClass) throws Exception {
+        throwIfFailed(runOnNestedClasses(story, testClass));
+    }
+
+    /** Same as testOnNestedClasses(String, Class), for a story that was already compiled **/
+    public void testOnNestedClasses(CompiledStory story, Class<?> testClass) throws Exception {
+        throwIfFailed(runOnNestedClasses(story, testClass));
+    }
+
+    /** Same as testOnNestedClasses(String, Class), reporting the outcome like runOnInheritanceTree does **/
+    public StoryResult runOnNestedClasses(String story, Class<?> testClass) throws Exception {
         if((story == null) || testClass == null) throw new IllegalArgumentException();
-        try{
-            testOnInheritanceTree(story, testClass);
-        }
-        catch (GivenNotFoundException e){
-            boolean no_story = true;
-            for (Class<?> innerClass : testClass.getDeclaredClasses()){
-                try {
-                    testOnNestedClasses(story, innerClass);
-                }
-                catch (GivenNotFoundException e1){
-                    continue;
-                }
-                no_story = false;
-                break;
-            }
-            if (no_story) throw new GivenNotFoundException();
+        StoryCursor given = new StoryScanner(story);
+        Class<?> storyClass = resolveNestedClass(given, testClass);
+        if (storyClass == null) return missingGiven(given);
+        return runStory(new StoryScanner(story), storyClass);
+    }
+
+    /** Same as runOnNestedClasses(String, Class), for a story that was already compiled **/
+    public StoryResult runOnNestedClasses(CompiledStory story, Class<?> testClass) throws Exception {
+        if((story == null) || testClass == null) throw new IllegalArgumentException();
+        StoryCursor given = story.cursor();
+        Class<?> storyClass = resolveNestedClass(given, testClass);
+        if (storyClass == null) return missingGiven(given);
+        return runStory(story.cursor(), storyClass);
+    }
+
+    /**
+     * Returns the class (testClass or one of its nested classes) the story should run on,
+     * according to the story's first Given sentence, or null if no class has a matching Given
+     * (leaving the cursor on that Given). A story without a Given runs on testClass.
+     */
+    private static Class<?> resolveNestedClass(StoryCursor line, Class<?> testClass) throws Exception {
+        while (line.next()) {
+            if (line.annotationClass() != Given.class) continue;
+            return NestedClassResolver.resolve(testClass, line);
         }
+        return testClass;
+    }
+
+    private static StoryResult missingGiven(StoryCursor given) {
+        return new StoryResult(null, null, null, 0, new FailedThens(), 0, 0, null, null, Given.class, given.sentence());
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package solution;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Thrown by the test methods of StoryTesterImpl when a run was stopped by a step or story
+ * timeout of its ExecutionPolicy. The failures found up to that point are in the result.
+ */
+public class StoryTimeoutException extends TimeoutException {
+    private final StoryResult result;
+
+    StoryTimeoutException(StoryResult result) {
+        super(result.getTimedOutSentence() == null ? "The story timed out"
+                : "Timed out at: " + result.getTimedOutSentence());
+        this.result = result;
+    }
+
+    /** Returns the result of the run up to the timeout **/
+    public StoryResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,194 @@
+package solution;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The single daemon thread that enforces the step and story timeouts of every run, on
+ * every tester. A run with timeouts registers a Watch; the watchdog scans the registered
+ * watches once every tick, and interrupts the thread of a run whose running step went past
+ * its deadline. While no run is registered, the watchdog sleeps.
+ * <p>
+ * A run that abandons timed out steps invokes its steps on the daemon worker threads of
+ * WORKERS, so the thread the watchdog interrupts is the one of the run, waiting for the step,
+ * which then stops waiting whether or not the step itself reacts to the interrupt.
+ */
+final class StoryWatchdog {
+
+    /** How often the deadlines are checked, which bounds how late a timeout is detected **/
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final Set<Watch> WATCHES = ConcurrentHashMap.newKeySet();
+    private static Thread thread;
+
+    private static final AtomicInteger NUM_WORKERS = new AtomicInteger();
+    /** Grows as abandoned steps keep their threads busy, and shrinks once they end **/
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(task -> {
+        Thread worker = new Thread(task, "story-step-worker-" + NUM_WORKERS.incrementAndGet());
+        worker.setDaemon(true);
+        return worker;
+    });
+
+    private StoryWatchdog() {
+    }
+
+    /**
+     * Registers a watch for a run on the current thread. A timeout of 0 means none.
+     * See ExecutionPolicy.withAbandonedTimedOutSteps() for abandonTimedOutSteps.
+     * The watch must be closed when the run ends.
+     */
+    static Watch watch(long stepTimeoutNanos, long storyTimeoutNanos, boolean abandonTimedOutSteps) {
+        Watch watch = new Watch(Thread.currentThread(), stepTimeoutNanos, storyTimeoutNanos, abandonTimedOutSteps);
+        WATCHES.add(watch);
+        LockSupport.unpark(thread());
+        return watch;
+    }
+
+    private static synchronized Thread thread() {
+        if (thread == null) {
+            thread = new Thread(StoryWatchdog::scan, "story-watchdog");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return thread;
+    }
+
+    private static void scan() {
+        while (true) {
+            if (WATCHES.isEmpty()) {
+                // Woken up by the next registration.
+                LockSupport.park();
+                continue;
+            }
+            long now = System.nanoTime();
+            for (Watch watch : WATCHES) {
+                watch.check(now);
+            }
+            LockSupport.parkNanos(TICK_NANOS);
+        }
+    }
+
+    /**
+     * The deadlines of a single run. The state is guarded by the watch itself, so the
+     * watchdog never interrupts a step that already ended.
+     */
+    static final class Watch {
+        private static final int IDLE = 0;
+        private static final int RUNNING = 1;
+        private static final int TIMED_OUT = 2;
+
+        private final Thread runner;
+        private final long stepTimeoutNanos;
+        private final long storyTimeoutNanos;
+        private final long storyStart;
+        private final boolean abandonTimedOutSteps;
+
+        private long stepStart;
+        private int state = IDLE;
+        private StopReason reason;
+
+        private Watch(Thread runner, long stepTimeoutNanos, long storyTimeoutNanos, boolean abandonTimedOutSteps) {
+            this.runner = runner;
+            this.stepTimeoutNanos = stepTimeoutNanos;
+            this.storyTimeoutNanos = storyTimeoutNanos;
+            this.storyStart = System.nanoTime();
+            this.abandonTimedOutSteps = abandonTimedOutSteps;
+        }
+
+        /**
+         * Invokes step on a worker thread, between startStep() and endStep(), for a watch that
+         * abandons timed out steps. A step that times out is interrupted and left to end on its
+         * own, and this returns at once; endStep() then reports it as timed out.
+         * Whatever the step throws is thrown as is.
+         */
+        void invoke(Callable<Void> step) throws Exception {
+            Future<Void> future = WORKERS.submit(step);
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        future.get();
+                        return;
+                    } catch (InterruptedException e) {
+                        if (timedOut()) {
+                            future.cancel(true);
+                            return;
+                        }
+                        // Not interrupted by the watchdog; the step goes on, and the interrupt is kept.
+                        interrupted = true;
+                    }
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) throw (Exception) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            } finally {
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        }
+
+        boolean abandonsTimedOutSteps() {
+            return abandonTimedOutSteps;
+        }
+
+        private synchronized boolean timedOut() {
+            return state == TIMED_OUT;
+        }
+
+        /** Must be called right before a step is invoked **/
+        synchronized void startStep() {
+            stepStart = System.nanoTime();
+            state = RUNNING;
+        }
+
+        /**
+         * Must be called right after the step returned or threw.
+         * Returns why the step timed out (clearing the interrupt it got), or null if it did not.
+         */
+        StopReason endStep() {
+            synchronized (this) {
+                boolean timedOut = state == TIMED_OUT;
+                state = IDLE;
+                if (!timedOut) return null;
+            }
+            Thread.interrupted();
+            return reason;
+        }
+
+        /** Returns true if the story ran out of time, for checking between steps **/
+        boolean storyTimedOut() {
+            return storyTimeoutNanos != 0 && System.nanoTime() - storyStart > storyTimeoutNanos;
+        }
+
+        /** Unregisters the watch. Must be called by the run's thread when the run ends **/
+        void close() {
+            WATCHES.remove(this);
+            if (endStep() != null) {
+                // The run ended by throwing out of a step that timed out.
+                reason = null;
+            }
+        }
+
+        private synchronized void check(long now) {
+            if (state != RUNNING) return;
+            if (stepTimeoutNanos != 0 && now - stepStart > stepTimeoutNanos) {
+                reason = StopReason.STEP_TIMEOUT;
+            } else if (storyTimeoutNanos != 0 && now - storyStart > storyTimeoutNanos) {
+                reason = StopReason.STORY_TIMEOUT;
+            } else {
+                return;
+            }
+            state = TIMED_OUT;
+            runner.interrupt();
+        }
+    }
+}
@@ -5,7 +5,6 @@ import org.junit.Test;
 import solution.StoryTestExceptionImpl;
 import solution.StoryTesterImpl;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
@@ -112,22 +111,14 @@ public class TestBackup
         all.f = new Regular("init");
         all.g = noConstructor;
 
-        StoryTesterImpl sT = new StoryTesterImpl();
         Method method = StoryTesterImpl.class.getDeclaredMethod("backUpInstance", Object.class);
         method.setAccessible(true);
+        ToBackupAll backupAll;
         try {
-            method.invoke(sT,all);
+            backupAll = (ToBackupAll) method.invoke(null,all);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        Field field = null;
-        try {
-            field = StoryTesterImpl.class.getDeclaredField("objectBackup");
-        } catch (NoSuchFieldException e) {
-            throw new RuntimeException(e);
-        }
-        field.setAccessible(true);
-        ToBackupAll backupAll = (ToBackupAll) field.get(sT);
         Assert.assertEquals(backupAll.a.value, "Cloned");
         Assert.assertEquals(backupAll.b.value, "Cloned");
         Assert.assertEquals(backupAll.c.value, "copied");
@@ -138,12 +129,177 @@ public class TestBackup
 
         ToBackupNon non = new ToBackupNon();
         non.a = 10;
+        ToBackupNon backupNon;
         try {
-            method.invoke(sT,non);
+            backupNon = (ToBackupNon) method.invoke(null,non);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        ToBackupNon backupNon = (ToBackupNon) field.get(sT);
         Assert.assertEquals(backupNon.a, 10);
     }
+
+    static class DerivedCloned extends Cloned
+    {
+        DerivedCloned(String value)
+        {
+            super(value);
+        }
+    }
+
+    static class NotCloneable implements Cloneable
+    {
+    }
+
+    static class ToBackupStrategies
+    {
+        ToBackupStrategies()
+        {
+
+        }
+
+        DerivedCloned a;
+        NotCloneable b;
+    }
+
+    @Test
+    public void runBackupStrategies() throws Exception
+    {
+        Method method = StoryTesterImpl.class.getDeclaredMethod("backUpInstance", Object.class);
+        method.setAccessible(true);
+
+        ToBackupStrategies strategies = new ToBackupStrategies();
+        strategies.a = new DerivedCloned("init");
+        for (int i = 0; i < 2; i++) {
+            ToBackupStrategies backup = (ToBackupStrategies) method.invoke(null, strategies);
+            Assert.assertEquals("Cloned", backup.a.value);
+            Assert.assertNotSame(strategies.a, backup.a);
+        }
+
+        strategies.b = new NotCloneable();
+        try {
+            method.invoke(null, strategies);
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof RuntimeException);
+        }
+    }
+
+    static class ToRestore
+    {
+        ToRestore()
+        {
+
+        }
+
+        int a;
+        long b;
+        final String c = "final";
+        Copied d;
+    }
+
+    @Test
+    public void runRestore() throws Exception
+    {
+        ToRestore restore = new ToRestore();
+        restore.a = 1;
+        restore.b = 2;
+        restore.d = new Copied("init");
+
+        Method backUp = StoryTesterImpl.class.getDeclaredMethod("backUpInstance", Object.class);
+        backUp.setAccessible(true);
+        Method restoreMethod = StoryTesterImpl.class.getDeclaredMethod("restoreInstance", Object.class, Object.class);
+        restoreMethod.setAccessible(true);
+
+        Object backup = backUp.invoke(null, restore);
+        Copied original = restore.d;
+        restore.a = 10;
+        restore.b = 20;
+        restore.d = null;
+        restoreMethod.invoke(null, restore, backup);
+        Assert.assertEquals(1, restore.a);
+        Assert.assertEquals(2, restore.b);
+        Assert.assertEquals("final", restore.c);
+        Assert.assertEquals("copied", restore.d.value);
+        Assert.assertNotSame(original, restore.d);
+    }
+
+    @Test
+    public void runDirtyRestore() throws Exception
+    {
+        ToRestore restore = new ToRestore();
+        restore.a = 1;
+        restore.b = 2;
+        restore.d = new Copied("init");
+
+        Method backUp = StoryTesterImpl.class.getDeclaredMethod("backUpInstance", Object.class);
+        backUp.setAccessible(true);
+        Method restoreMethod = StoryTesterImpl.class.getDeclaredMethod("restoreInstance", Object.class, Object.class);
+        restoreMethod.setAccessible(true);
+
+        Object backup = backUp.invoke(null, restore);
+        restore.a = 10;
+        // a differs, and c and d hold copies in the backup; only b is unchanged.
+        Assert.assertEquals(3, restoreMethod.invoke(null, restore, backup));
+        Assert.assertEquals(1, restore.a);
+        Assert.assertEquals("copied", restore.d.value);
+        // Now c and d hold the very objects of the backup.
+        Assert.assertEquals(0, restoreMethod.invoke(null, restore, backup));
+    }
+
+    public static class Counted
+    {
+        static int numCreated;
+
+        private Cloned cloned = new Cloned("start");
+        private int value;
+
+        public Counted()
+        {
+            numCreated++;
+        }
+
+        @solution.Given("a counted of &value")
+        public void given(int value)
+        {
+            this.value = value;
+        }
+
+        @solution.When("the counted is set to &value")
+        public void set(int value)
+        {
+            this.value = value;
+            cloned.value = "set " + value;
+        }
+
+        @solution.Then("the counted is &value")
+        public void is(int value)
+        {
+            if (this.value != value) throw new org.junit.ComparisonFailure(null, "" + value, "" + this.value);
+        }
+    }
+
+    @Test
+    public void runBackupReused() throws Exception
+    {
+        StringBuilder story = new StringBuilder("Given a counted of 0");
+        for (int i = 1; i <= 20; i++)
+        {
+            story.append("\nWhen the counted is set to ").append(i);
+            story.append("\nThen the counted is ").append(i % 5 == 0 ? -1 : i);
+        }
+        Counted.numCreated = 0;
+        try
+        {
+            new StoryTesterImpl().testOnInheritanceTree(story.toString(), Counted.class);
+            Assert.fail();
+        }
+        catch (StoryTestExceptionImpl e)
+        {
+            Assert.assertEquals("Then the counted is -1", e.getSentance());
+            Assert.assertEquals("5", e.getTestResult());
+            Assert.assertEquals(4, e.getNumFail());
+        }
+        // The test instance, and a single backup.
+        Assert.assertEquals(2, Counted.numCreated);
+    }
 }
@@ -0,0 +1,90 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import provided.GivenNotFoundException;
+import solution.StoryBatchResult;
+import solution.StoryBatchRunner;
+import solution.StoryJob;
+import solution.StoryJobResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestBatchRunner {
+
+	private static final String goodStory = "Given a Dog of age 6\n"
+			+ "When the dog is not taken out for a walk, and the number of hours is 5\n"
+			+ "Then the house condition is clean";
+
+	private static final String badStory = "Given a Dog of age 6\n"
+			+ "When the dog is not taken out for a walk, and the number of hours is 15\n"
+			+ "Then the house condition is clean";
+
+	private static final String missingStory = "Given a Dog that his age is 6\n"
+			+ "Then the house condition is clean";
+
+	private static List<StoryJob> jobs(int count) {
+		List<StoryJob> jobs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			switch (i % 3) {
+				case 0:
+					jobs.add(new StoryJob(goodStory, DogStoryTest.class));
+					break;
+				case 1:
+					jobs.add(new StoryJob(badStory, DogStoryTest.class));
+					break;
+				default:
+					jobs.add(new StoryJob(missingStory, DogStoryTest.class));
+			}
+		}
+		return jobs;
+	}
+
+	private static void assertResults(StoryBatchResult result, int count) {
+		Assert.assertEquals(count, result.getResults().size());
+		Assert.assertEquals(count / 3, result.getNumPassed());
+		Assert.assertEquals(count / 3, result.getNumFailed());
+		Assert.assertEquals(0, result.getNumStopped());
+		Assert.assertEquals(count / 3, result.getNumErrors());
+		Assert.assertEquals(count / 3, result.getNumFailedSentences());
+		Assert.assertFalse(result.allPassed());
+		for (int i = 0; i < count; i++) {
+			StoryJobResult jobResult = result.getResults().get(i);
+			switch (i % 3) {
+				case 0:
+					Assert.assertTrue(jobResult.passed());
+					break;
+				case 1:
+					Assert.assertEquals("Then the house condition is clean", jobResult.getStoryTestException().getSentance());
+					Assert.assertEquals("smelly", jobResult.getStoryTestException().getTestResult());
+					break;
+				default:
+					Assert.assertNull(jobResult.getStoryTestException());
+					Assert.assertTrue(jobResult.getException() instanceof GivenNotFoundException);
+			}
+		}
+	}
+
+	@Test
+	public void commonPool() {
+		assertResults(new StoryBatchRunner().runAll(jobs(3000)), 3000);
+	}
+
+	@Test
+	public void fixedPool() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			assertResults(new StoryBatchRunner(executor).runAll(jobs(300)), 300);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void empty() {
+		Assert.assertTrue(new StoryBatchRunner().runAll(new ArrayList<>()).allPassed());
+	}
+}
@@ -0,0 +1,97 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import provided.GivenNotFoundException;
+import provided.StoryTestException;
+import solution.CompiledStory;
+import solution.Given;
+import solution.StoryCompiler;
+import solution.StoryLine;
+import solution.StoryTesterImpl;
+import solution.Then;
+
+public class TestCompiledStory {
+
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+
+	private final CompiledStory story = StoryCompiler.compile("Given a Dog of age 6\n"
+			+ "When the dog is not taken out for a walk, and the number of hours is 15\n"
+			+ "When the house is cleaned, and the number of hours is 11\n"
+			+ "Then the house condition is clean");
+
+	@Test
+	public void tokenized() {
+		Assert.assertEquals(4, story.size());
+		StoryLine first = story.getLines().get(0);
+		Assert.assertEquals("Given a Dog of age 6", first.getSentence());
+		Assert.assertEquals(Given.class, first.getAnnotationClass());
+		Assert.assertEquals("a Dog of age", first.getSentenceSub());
+		Assert.assertEquals("6", first.getParameter());
+
+		StoryLine last = story.getLines().get(3);
+		Assert.assertEquals(Then.class, last.getAnnotationClass());
+		Assert.assertEquals("clean", last.getParameter());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void immutable() {
+		story.getLines().clear();
+	}
+
+	@Test
+	public void reusedAcrossRunsAndClasses() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			tester.testOnInheritanceTree(story, DogStoryDerivedTest.class);
+			tester.testOnNestedClasses(story, DogStoryDerivedTest.class);
+		}
+		try {
+			tester.testOnInheritanceTree(story, CatStory.class);
+			Assert.fail();
+		} catch (GivenNotFoundException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void failuresReported() throws Exception {
+		CompiledStory bad = StoryCompiler.compile("Given a Dog of age 6\n"
+				+ "When the dog is not taken out for a walk, and the number of hours is 5\n"
+				+ "Then the house condition is smelly");
+		for (int i = 0; i < 2; i++) {
+			try {
+				tester.testOnInheritanceTree(bad, DogStoryTest.class);
+				Assert.fail();
+			} catch (StoryTestException e) {
+				Assert.assertEquals("Then the house condition is smelly", e.getSentance());
+				Assert.assertEquals("smelly", e.getStoryExpected());
+				Assert.assertEquals("clean", e.getTestResult());
+				Assert.assertEquals(1, e.getNumFail());
+			}
+		}
+	}
+
+	@Test
+	public void trailingLineBreaksIgnored() throws Exception {
+		Assert.assertEquals(1, StoryCompiler.compile("Given a Dog of age 6\n\n\n").size());
+		tester.testOnInheritanceTree("Given a Dog of age 6\n"
+				+ "When the dog is not taken out for a walk, and the number of hours is 5\n"
+				+ "Then the house condition is clean\n\n", DogStoryTest.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyLineInside() throws Exception {
+		tester.testOnInheritanceTree("Given a Dog of age 6\n\n"
+				+ "Then the house condition is clean", DogStoryTest.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badAnnotationName() {
+		StoryCompiler.compile("Given a Dog of age 6\nAnd the dog is 5");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingParameter() {
+		StoryCompiler.compile("Given 6");
+	}
+}
@@ -0,0 +1,72 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import provided.StoryTestException;
+import solution.StoryTesterImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many stories in parallel on a single shared tester. Each story fails
+ * once and then relies on its own backup, so a backup leaking from another
+ * run shows up as a wrong kaki size.
+ */
+public class TestConcurrency {
+
+	private static final int THREADS = 8;
+	private static final int RUNS_PER_THREAD = 500;
+
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+
+	/** A story that only passes if the backup restored is the one taken by this very run **/
+	private static String story(int size) {
+		return "Given a Cat of age 6\n"
+				+ "When the Cat did kaki of size " + size + "\n"
+				+ "Then the kaki size is " + size + "\n"
+				+ "When the Cat did kaki of size " + (size + 1) + "\n"
+				+ "Then the kaki size is 0\n" // fail, restores the backup of this run
+				+ "When the Cat is not taken out for a walk, the number of hours is 1\n"
+				+ "Then the kaki size is " + size;
+	}
+
+	@Test
+	public void backupsNeverLeakBetweenParallelRuns() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				futures.add(executor.submit((Callable<Void>) () -> {
+					start.await();
+					for (int i = 0; i < RUNS_PER_THREAD; i++) {
+						int size = thread * RUNS_PER_THREAD + i + 1;
+						try {
+							tester.testOnInheritanceTree(story(size), CatStory.class);
+							Assert.fail();
+						} catch (StoryTestException e) {
+							Assert.assertEquals("Then the kaki size is 0", e.getSentance());
+							Assert.assertEquals("0", e.getStoryExpected());
+							Assert.assertEquals(String.valueOf(size + 1), e.getTestResult());
+							Assert.assertEquals(1, e.getNumFail());
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
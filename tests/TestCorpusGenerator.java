@@ -0,0 +1,69 @@
+package tests;
+
+import benchmarks.StoryCorpusGenerator;
+import benchmarks.StoryCorpusGenerator.CompiledCorpus;
+import benchmarks.StoryCorpusGenerator.GeneratedStory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import provided.StoryTestException;
+import solution.StoryTesterImpl;
+
+/**
+ * Runs generated stories on generated step classes, and checks the tester
+ * reports exactly the failures the generator planted.
+ */
+public class TestCorpusGenerator {
+
+	private static StoryCorpusGenerator generator;
+	private static CompiledCorpus corpus;
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+
+	@BeforeClass
+	public static void compile() {
+		generator = new StoryCorpusGenerator(42).stepsPerClass(20).hierarchyDepth(5).nestedFanOut(3).nestedDepth(3);
+		corpus = generator.compile();
+	}
+
+	private static void assertRun(GeneratedStory story, ThrowingRunnable run) throws Exception {
+		try {
+			run.run();
+			Assert.assertEquals(0, story.getNumFail());
+		} catch (StoryTestException e) {
+			Assert.assertEquals(story.getFirstFailedSentence(), e.getSentance());
+			Assert.assertEquals(story.getNumFail(), e.getNumFail());
+		}
+	}
+
+	private interface ThrowingRunnable {
+		void run() throws Exception;
+	}
+
+	@Test
+	public void sameSeedSameCorpus() {
+		StoryCorpusGenerator other = new StoryCorpusGenerator(42).stepsPerClass(20).hierarchyDepth(5).nestedFanOut(3).nestedDepth(3);
+		Assert.assertEquals(generator.generateSources(), other.generateSources());
+		Assert.assertEquals(generator.story(50, 0.1, 7).getText(), other.story(50, 0.1, 7).getText());
+		Assert.assertNotEquals(generator.story(50, 0.1, 7).getText(), generator.story(50, 0.1, 8).getText());
+	}
+
+	@Test
+	public void inheritanceStories() throws Exception {
+		Class<?> steps = corpus.getStepsClass();
+		for (int seed = 0; seed < 20; seed++) {
+			GeneratedStory story = generator.story(200, seed % 2 == 0 ? 0.0 : 0.05, seed);
+			Assert.assertEquals(401, story.getNumLines());
+			assertRun(story, () -> tester.testOnInheritanceTree(story.getText(), steps));
+		}
+	}
+
+	@Test
+	public void nestedStories() throws Exception {
+		Class<?> nested = corpus.getNestedClass();
+		Assert.assertEquals(3 + 9 + 27, generator.nestedPaths().size());
+		for (String path : generator.nestedPaths()) {
+			GeneratedStory story = generator.nestedStory(path, 5, 0.3, path.hashCode());
+			assertRun(story, () -> tester.testOnNestedClasses(story.getText(), nested));
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+import solution.ExecutionPolicy;
+import solution.StopReason;
+import solution.StoryBudgetExceededException;
+import solution.StoryResult;
+import solution.StoryTestExceptionImpl;
+import solution.StoryTesterImpl;
+import solution.Given;
+import solution.Then;
+import solution.When;
+
+import java.time.Duration;
+
+public class TestExecutionPolicy {
+
+	public static class Slow {
+		private int value;
+
+		@Given("a value of &x")
+		public void given(int x) {
+			value = x;
+		}
+
+		@When("sleeping for &ms")
+		public void sleep(int ms) throws InterruptedException {
+			Thread.sleep(ms);
+		}
+
+		@When("spinning for &ms")
+		public void spin(int ms) {
+			long end = System.nanoTime() + ms * 1_000_000L;
+			while (System.nanoTime() < end) {
+				value += 0;
+			}
+		}
+
+		@Then("the value is &x")
+		public void valueIs(int x) {
+			if (x != value) throw new ComparisonFailure(null, Integer.toString(x), Integer.toString(value));
+		}
+	}
+
+	/** A story of a Given and count When-Then pairs, where every Then fails **/
+	private static String failingStory(int count) {
+		StringBuilder story = new StringBuilder("Given a value of 1");
+		for (int i = 0; i < count; i++) {
+			story.append("\nWhen sleeping for 0\nThen the value is 2");
+		}
+		return story.toString();
+	}
+
+	private static StoryTesterImpl tester(ExecutionPolicy policy) {
+		return new StoryTesterImpl().withExecutionPolicy(policy);
+	}
+
+	@Test
+	public void runToEndByDefault() throws Exception {
+		StoryResult result = new StoryTesterImpl().runOnInheritanceTree(failingStory(10), Slow.class);
+		Assert.assertEquals(21, result.getNumLinesRun());
+		Assert.assertEquals(10, result.getNumFail());
+		Assert.assertNull(result.getStopReason());
+	}
+
+	@Test
+	public void failFast() throws Exception {
+		try {
+			tester(ExecutionPolicy.failFast()).testOnInheritanceTree(failingStory(10), Slow.class);
+			Assert.fail();
+		} catch (StoryTestExceptionImpl e) {
+			Assert.assertEquals(1, e.getNumFail());
+			Assert.assertEquals(3, e.getNumLinesRun());
+			Assert.assertEquals("Then the value is 2", e.getSentance());
+		}
+	}
+
+	@Test
+	public void stopAfterFailures() throws Exception {
+		StoryResult result = tester(ExecutionPolicy.stopAfterFailures(3)).runOnInheritanceTree(failingStory(10), Slow.class);
+		Assert.assertEquals(3, result.getNumFail());
+		Assert.assertEquals(7, result.getNumLinesRun());
+		Assert.assertEquals(StopReason.FAILURES, result.getStopReason());
+	}
+
+	@Test
+	public void passingStoryNotStopped() throws Exception {
+		StoryResult result = tester(ExecutionPolicy.failFast()).runOnInheritanceTree("Given a value of 1\n"
+				+ "When sleeping for 0\n"
+				+ "Then the value is 1", Slow.class);
+		Assert.assertTrue(result.passed());
+		Assert.assertEquals(3, result.getNumLinesRun());
+		Assert.assertNull(result.getStopReason());
+	}
+
+	@Test
+	public void wallClockBudget() throws Exception {
+		StringBuilder story = new StringBuilder("Given a value of 1");
+		for (int i = 0; i < 100; i++) {
+			story.append("\nWhen sleeping for 10");
+		}
+		ExecutionPolicy policy = ExecutionPolicy.RUN_TO_END.withWallClockBudget(Duration.ofMillis(50));
+		StoryResult result = tester(policy).runOnInheritanceTree(story.toString(), Slow.class);
+		Assert.assertEquals(StopReason.WALL_CLOCK_BUDGET, result.getStopReason());
+		Assert.assertEquals(0, result.getNumFail());
+		Assert.assertFalse(result.passed());
+		Assert.assertTrue(result.getNumLinesRun() < 50);
+	}
+
+	@Test
+	public void budgetStopIsNotAPass() throws Exception {
+		ExecutionPolicy policy = ExecutionPolicy.RUN_TO_END.withWallClockBudget(Duration.ofMillis(5));
+		try {
+			tester(policy).testOnInheritanceTree("Given a value of 1\n"
+					+ "When sleeping for 20\n"
+					+ "When sleeping for 20\n"
+					+ "Then the value is 1", Slow.class);
+			Assert.fail();
+		} catch (StoryBudgetExceededException e) {
+			Assert.assertEquals(StopReason.WALL_CLOCK_BUDGET, e.getResult().getStopReason());
+			Assert.assertEquals(2, e.getResult().getNumLinesRun());
+		}
+	}
+
+	@Test
+	public void cpuBudget() throws Exception {
+		StringBuilder story = new StringBuilder("Given a value of 1");
+		for (int i = 0; i < 1000; i++) {
+			story.append("\nWhen spinning for 1");
+		}
+		ExecutionPolicy policy = ExecutionPolicy.RUN_TO_END.withCpuBudget(Duration.ofMillis(20));
+		StoryResult result = tester(policy).runOnInheritanceTree(story.toString(), Slow.class);
+		Assert.assertEquals(StopReason.CPU_BUDGET, result.getStopReason());
+		Assert.assertTrue(result.getNumLinesRun() < 1000);
+	}
+
+	@Test
+	public void cpuBudgetOfShortStory() throws Exception {
+		StringBuilder story = new StringBuilder("Given a value of 1");
+		for (int i = 0; i < 5; i++) {
+			story.append("\nWhen spinning for 50");
+		}
+		ExecutionPolicy policy = ExecutionPolicy.RUN_TO_END.withCpuBudget(Duration.ofMillis(20));
+		StoryResult result = tester(policy).runOnInheritanceTree(story.toString(), Slow.class);
+		Assert.assertEquals(StopReason.CPU_BUDGET, result.getStopReason());
+		Assert.assertEquals(2, result.getNumLinesRun());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badFailureLimit() {
+		ExecutionPolicy.stopAfterFailures(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badBudget() {
+		ExecutionPolicy.failFast().withWallClockBudget(Duration.ZERO);
+	}
+}
@@ -0,0 +1,70 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import solution.FailedThens;
+import solution.StoryTestExceptionImpl;
+import solution.StoryTesterImpl;
+
+public class TestFailedThens {
+
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+
+	@Test
+	public void everyFailureRecorded() throws Exception {
+		try {
+			tester.testOnInheritanceTree("Given A of x 3\n"
+					+ "When A's x is 5\n"
+					+ "Then A's x is 4\n"
+					+ "When A's x is 6\n"
+					+ "Then A's x is 4\n"
+					+ "Then A's x is 6\n"
+					+ "Then A's x is 7", StoryTest.class);
+			Assert.fail();
+		} catch (StoryTestExceptionImpl e) {
+			Assert.assertEquals("Then A's x is 4", e.getSentance());
+			Assert.assertEquals(3, e.getNumFail());
+			FailedThens failed = e.getFailedThens();
+			Assert.assertEquals(3, failed.size());
+			Assert.assertEquals(2, failed.getLineIndex(0));
+			Assert.assertEquals("4", failed.getExpected(0));
+			Assert.assertEquals("5", failed.getActual(0));
+			Assert.assertEquals(4, failed.getLineIndex(1));
+			Assert.assertEquals("4", failed.getExpected(1));
+			Assert.assertEquals("6", failed.getActual(1));
+			Assert.assertEquals(6, failed.getLineIndex(2));
+			Assert.assertEquals("7", failed.getExpected(2));
+			Assert.assertEquals("6", failed.getActual(2));
+			Assert.assertEquals(4, failed.getNumDistinctValues());
+		}
+	}
+
+	@Test
+	public void manyFailuresShareValues() throws Exception {
+		StringBuilder story = new StringBuilder("Given A of x 1\nWhen A's x is 3");
+		for (int i = 0; i < 1000; i++) {
+			story.append("\nThen A's x is 9");
+		}
+		FailedThens failed = tester.runOnInheritanceTree(story.toString(), StoryTest.class).getFailedThens();
+		Assert.assertEquals(1000, failed.size());
+		Assert.assertEquals(1001, failed.getLineIndex(999));
+		Assert.assertEquals("9", failed.getExpected(999));
+		// The first failure restores the instance to before the When.
+		Assert.assertEquals("3", failed.getActual(0));
+		Assert.assertEquals("1", failed.getActual(999));
+		Assert.assertEquals(3, failed.getNumDistinctValues());
+	}
+
+	@Test
+	public void passingStoryHasNoFailures() throws Exception {
+		Assert.assertEquals(0, tester.runOnInheritanceTree("Given A of x 3\n"
+				+ "Then A's x is 3", StoryTest.class).getFailedThens().size());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void outOfRange() throws Exception {
+		tester.runOnInheritanceTree("Given A of x 3\n"
+				+ "When A's x is 3\n"
+				+ "Then A's x is 4", StoryTest.class).getFailedThens().getExpected(1);
+	}
+}
@@ -0,0 +1,164 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+import solution.FixtureCache;
+import solution.Given;
+import solution.StoryResult;
+import solution.StoryTesterImpl;
+import solution.Then;
+import solution.When;
+
+public class TestFixtureCache {
+
+	public static class Holder implements Cloneable {
+		int[] values;
+
+		Holder(int size) {
+			values = new int[size];
+		}
+
+		@Override
+		protected Object clone() throws CloneNotSupportedException {
+			Holder copy = (Holder) super.clone();
+			copy.values = values.clone();
+			return copy;
+		}
+	}
+
+	public static class ExpensiveParent {
+		static int numBuilt;
+
+		protected Holder holder;
+
+		@Given("a holder of size &size")
+		public void build(int size) {
+			numBuilt++;
+			holder = new Holder(size);
+		}
+	}
+
+	public static class Expensive extends ExpensiveParent {
+		private int offset;
+
+		@Given("an offset of &offset")
+		public void offset(int offset) {
+			this.offset = offset;
+		}
+
+		@When("setting every value to &x")
+		public void set(int x) {
+			for (int i = 0; i < holder.values.length; i++) {
+				holder.values[i] = x + offset;
+			}
+		}
+
+		@Then("the first value is &x")
+		public void first(int x) {
+			if (holder.values[0] != x) {
+				throw new ComparisonFailure(null, Integer.toString(x), Integer.toString(holder.values[0]));
+			}
+		}
+	}
+
+	public static class WithStatics extends ExpensiveParent {
+		private static final int OFFSET = 10;
+		static Holder shared = new Holder(1);
+
+		@Then("the first value plus the offset is &x")
+		public void firstPlusOffset(int x) {
+			if (holder.values[0] + OFFSET != x) {
+				throw new ComparisonFailure(null, Integer.toString(x), Integer.toString(holder.values[0] + OFFSET));
+			}
+		}
+	}
+
+	private static StoryTesterImpl tester(FixtureCache cache) {
+		return new StoryTesterImpl().withFixtureCache(cache);
+	}
+
+	@Test
+	public void givenRunsOnce() throws Exception {
+		FixtureCache cache = new FixtureCache(8);
+		StoryTesterImpl tester = tester(cache);
+		ExpensiveParent.numBuilt = 0;
+		for (int i = 0; i < 5; i++) {
+			StoryResult result = tester.runOnInheritanceTree("Given a holder of size 100\n"
+					+ "Given an offset of 1\n"
+					+ "Then the first value is 0\n"
+					+ "When setting every value to " + i + "\n"
+					+ "Then the first value is " + (i + 1), Expensive.class);
+			Assert.assertTrue(result.passed());
+			Assert.assertEquals(5, result.getNumLinesRun());
+		}
+		Assert.assertEquals(1, ExpensiveParent.numBuilt);
+		Assert.assertEquals(4, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void differentGivensDifferentFixtures() throws Exception {
+		FixtureCache cache = new FixtureCache(8);
+		StoryTesterImpl tester = tester(cache);
+		Assert.assertTrue(tester.runOnInheritanceTree("Given a holder of size 1\n"
+				+ "Given an offset of 1\n"
+				+ "When setting every value to 1\n"
+				+ "Then the first value is 2", Expensive.class).passed());
+		Assert.assertTrue(tester.runOnInheritanceTree("Given a holder of size 1\n"
+				+ "Given an offset of 2\n"
+				+ "When setting every value to 1\n"
+				+ "Then the first value is 3", Expensive.class).passed());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void leastRecentlyUsedEvicted() throws Exception {
+		FixtureCache cache = new FixtureCache(2);
+		StoryTesterImpl tester = tester(cache);
+		int[] sizes = {1, 2, 1, 3, 1, 2};
+		for (int size : sizes) {
+			tester.runOnInheritanceTree("Given a holder of size " + size, Expensive.class);
+		}
+		// 1 miss, 2 miss, 1 hit, 3 miss (evicts 2), 1 hit, 2 miss (evicts 3).
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(4, cache.getMisses());
+		Assert.assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void failedGivenNotCached() throws Exception {
+		FixtureCache cache = new FixtureCache(2);
+		tester(cache).runOnInheritanceTree("Given a holder of size 1\n"
+				+ "Given nothing at all", Expensive.class);
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void nestedClassWithEnclosingState() throws Exception {
+		FixtureCache cache = new FixtureCache(2);
+		StoryTesterImpl tester = tester(cache);
+		for (int i = 0; i < 3; i++) {
+			tester.testOnNestedClasses("Given B DerivedConstructor 5\n"
+					+ "Then B's y is Hello\n"
+					+ "When B's x is 4 and B's y is changed\n"
+					+ "Then B's y is changed", StoryTest.class);
+		}
+		Assert.assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void staticFieldsNotCopied() throws Exception {
+		FixtureCache cache = new FixtureCache(2);
+		StoryTesterImpl tester = tester(cache);
+		Holder shared = WithStatics.shared;
+		for (int i = 0; i < 3; i++) {
+			Assert.assertTrue(tester.runOnInheritanceTree("Given a holder of size 3\n"
+					+ "Then the first value plus the offset is 10", WithStatics.class).passed());
+		}
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertSame(shared, WithStatics.shared);
+	}
+}
@@ -0,0 +1,186 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+import provided.StoryTestException;
+import solution.Given;
+import solution.InstantiationMode;
+import solution.StoryTesterImpl;
+import solution.Then;
+import solution.When;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestInstantiation {
+
+	private final StoryTesterImpl tester = new StoryTesterImpl()
+			.withInstantiationMode(InstantiationMode.TEMPLATE_CLONE);
+
+	public static class ListParent implements Cloneable {
+		private static final int FIRST = 0;
+		static ArrayList<Integer> shared = new ArrayList<>();
+
+		protected ArrayList<Integer> items = new ArrayList<>();
+
+		ListParent() {
+			items.add(FIRST);
+		}
+	}
+
+	public static class Counted extends ListParent {
+		static int numCreated;
+
+		private int last = -1;
+
+		public Counted() {
+			numCreated++;
+		}
+
+		@Given("a counted of &x")
+		public void given(int x) {
+			items.add(x);
+		}
+
+		@When("adding &x")
+		public void add(int x) {
+			items.add(x);
+			last = x;
+		}
+
+		@Then("the size is &size")
+		public void size(int size) {
+			if (items.size() != size) throw new ComparisonFailure(null, "" + size, "" + items.size());
+		}
+
+		@Then("the last is &x")
+		public void last(int x) {
+			if (last != x) throw new ComparisonFailure(null, "" + x, "" + last);
+		}
+	}
+
+	public static class NotCloneable {
+		static int numCreated;
+
+		public NotCloneable() {
+			numCreated++;
+		}
+
+		@Given("a not cloneable of &x")
+		public void given(int x) {
+		}
+	}
+
+	public static class Box {
+		int v;
+	}
+
+	public static class WithBox implements Cloneable {
+		static int numCreated;
+
+		private Box box = new Box();
+
+		public WithBox() {
+			numCreated++;
+		}
+
+		@Given("a box of &v")
+		public void given(int v) {
+			box.v += v;
+		}
+
+		@Then("the box holds &v")
+		public void holds(int v) {
+			if (box.v != v) throw new ComparisonFailure(null, "" + v, "" + box.v);
+		}
+	}
+
+	@Test
+	public void constructedOnce() throws Exception {
+		tester.testOnInheritanceTree("Given a counted of 7", Counted.class);
+		Counted.numCreated = 0;
+		for (int i = 0; i < 5; i++) {
+			tester.testOnInheritanceTree("Given a counted of 7\n"
+					+ "Then the last is -1\n"
+					+ "When adding 3\n"
+					+ "When adding 4\n"
+					+ "Then the size is 4\n"
+					+ "Then the last is 4", Counted.class);
+		}
+		// Only a single backup of every run; the template was created by the first run.
+		Assert.assertEquals(5, Counted.numCreated);
+	}
+
+	@Test
+	public void runsDoNotShareState() throws Exception {
+		tester.testOnInheritanceTree("Given a counted of 1\nWhen adding 2\nThen the size is 3", Counted.class);
+		tester.testOnInheritanceTree("Given a counted of 1\nWhen adding 5\nThen the size is 3", Counted.class);
+		try {
+			tester.testOnInheritanceTree("Given a counted of 1\nWhen adding 5\nThen the size is 4", Counted.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			Assert.assertEquals("3", e.getTestResult());
+		}
+	}
+
+	@Test
+	public void staticFieldsNotCopied() throws Exception {
+		ArrayList<Integer> shared = ListParent.shared;
+		for (int i = 0; i < 3; i++) {
+			tester.testOnInheritanceTree("Given a counted of 1\nThen the size is 2", Counted.class);
+		}
+		Assert.assertSame(shared, ListParent.shared);
+	}
+
+	@Test
+	public void notCloneableIsConstructed() throws Exception {
+		NotCloneable.numCreated = 0;
+		for (int i = 0; i < 3; i++) {
+			tester.testOnInheritanceTree("Given a not cloneable of 1", NotCloneable.class);
+		}
+		Assert.assertEquals(3, NotCloneable.numCreated);
+	}
+
+	@Test
+	public void sharedFieldsNotCloned() throws Exception {
+		// A Box is neither cloned nor copied, so a clone would share it with the template.
+		WithBox.numCreated = 0;
+		for (int i = 0; i < 3; i++) {
+			tester.testOnInheritanceTree("Given a box of 1\nThen the box holds 1", WithBox.class);
+		}
+		// The template, and then an instance for every run.
+		Assert.assertEquals(4, WithBox.numCreated);
+	}
+
+	@Test
+	public void nestedClassesInTemplateMode() throws Exception {
+		tester.testOnNestedClasses("Given a Dog of age 6\n"
+				+ "When the dog is not taken out for a walk, and the number of hours is 5\n"
+				+ "Then the house condition is clean", DogStoryDerivedTest.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullMode() {
+		new StoryTesterImpl().withInstantiationMode(null);
+	}
+
+	@Test
+	public void sameResultsInBothModes() throws Exception {
+		List<String> results = new ArrayList<>();
+		for (InstantiationMode mode : InstantiationMode.values()) {
+			StoryTesterImpl tester = new StoryTesterImpl().withInstantiationMode(mode);
+			try {
+				tester.testOnInheritanceTree("Given a counted of 2\n"
+						+ "When adding 3\n"
+						+ "Then the size is 9\n"
+						+ "When adding 4\n"
+						+ "Then the size is 4", Counted.class);
+				Assert.fail(mode.toString());
+			} catch (StoryTestException e) {
+				results.add(e.getSentance() + " " + e.getTestResult() + " " + e.getNumFail());
+			}
+		}
+		Assert.assertEquals(results.get(0), results.get(1));
+	}
+}
@@ -0,0 +1,101 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+import provided.StoryTestException;
+import provided.WhenNotFoundException;
+import solution.Given;
+import solution.InvocationMode;
+import solution.StoryTesterImpl;
+import solution.Then;
+import solution.When;
+
+public class TestInvocationMode {
+
+	private static final String story = "Given a Cat of age 6\n"
+			+ "When the Cat did kaki of size 1\n"
+			+ "Then the kaki size is 0\n" //fail
+			+ "When the Cat did kaki of size 1\n"
+			+ "Then the kaki size is 1\n"
+			+ "Then the house condition is clean";
+
+	public static class StaticSteps {
+		static int value;
+
+		@Given("a static value of &x")
+		public static void given(int x) {
+			value = x;
+		}
+
+		@When("adding &x and &y")
+		public static void add(int x, int y) {
+			value += x + y;
+		}
+
+		@When("adding &x")
+		public void addOne(int x) {
+			value += x;
+		}
+
+		@Then("the static value is &x")
+		public static void is(String x) {
+			if (!x.equals("" + value)) throw new ComparisonFailure(null, x, "" + value);
+		}
+	}
+
+	private static void runBothModes(String story, Class<?> testClass, String sentence, int numFail) throws Exception {
+		for (InvocationMode mode : InvocationMode.values()) {
+			try {
+				new StoryTesterImpl().withInvocationMode(mode).testOnInheritanceTree(story, testClass);
+				Assert.assertNull(mode.toString(), sentence);
+			} catch (StoryTestException e) {
+				Assert.assertEquals(mode.toString(), sentence, e.getSentance());
+				Assert.assertEquals(mode.toString(), numFail, e.getNumFail());
+			}
+		}
+	}
+
+	@Test
+	public void sameFailuresInBothModes() throws Exception {
+		runBothModes(story, CatStory.class, "Then the kaki size is 0", 1);
+	}
+
+	@Test
+	public void passingStoryInBothModes() throws Exception {
+		runBothModes("Given a Cat of age 2\n"
+				+ "When the Cat did kaki of size 3\n"
+				+ "Then the kaki size is 3", CatStory.class, null, 0);
+	}
+
+	@Test
+	public void privateStepsInBothModes() throws Exception {
+		runBothModes("Given A of x 4\n"
+				+ "When A's y is false\n"
+				+ "Then A's y is true", StoryTest.class, "Then A's y is true", 1);
+	}
+
+	@Test
+	public void missingStepInBothModes() throws Exception {
+		for (InvocationMode mode : InvocationMode.values()) {
+			try {
+				new StoryTesterImpl().withInvocationMode(mode).testOnInheritanceTree("Given a Cat of age 6\n"
+						+ "When NOT_TO_BE_FOUND 5", CatStory.class);
+				Assert.fail(mode.toString());
+			} catch (WhenNotFoundException e) {
+				Assert.assertTrue(true);
+			}
+		}
+	}
+
+	@Test
+	public void staticStepsInBothModes() throws Exception {
+		runBothModes("Given a static value of 1\n"
+				+ "When adding 2 and 3\n"
+				+ "When adding 4\n"
+				+ "Then the static value is 10", StaticSteps.class, null, 0);
+		runBothModes("Given a static value of 1\n"
+				+ "When adding 4\n"
+				+ "Then the static value is 4", StaticSteps.class, "Then the static value is 4", 1);
+	}
+}
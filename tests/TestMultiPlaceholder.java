@@ -0,0 +1,59 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import provided.StoryTestException;
+import provided.WhenNotFoundException;
+import solution.StoryTesterImpl;
+
+public class TestMultiPlaceholder {
+
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+
+	@Test
+	public void allPlaceholdersBound() throws Exception {
+		tester.testOnInheritanceTree("Given A of x 3 and of z Word\n"
+				+ "Then A's x is 3\n"
+				+ "Then A's z is Word\n"
+				+ "When A's x is 5 and y is true and z is Hi\n"
+				+ "Then A's x is 5\n"
+				+ "Then A's y is true\n"
+				+ "Then A's z is Hi", StoryTest.class);
+	}
+
+	@Test
+	public void literalPreferredOverPlaceholder() throws Exception {
+		// "A of x 4 and of z &z" wins over "A of x &x and of z &z".
+		tester.testOnInheritanceTree("Given A of x 4 and of z Word\n"
+				+ "Then A's x is 4\n"
+				+ "Then A's z is Word", StoryTest.class);
+	}
+
+	@Test
+	public void backtrackFromLiteral() throws Exception {
+		// "A's x is &x" shares its prefix with the longer sentences, and is only reached by backtracking.
+		tester.testOnInheritanceTree("Given A of x 1\n"
+				+ "When A's x is 7\n"
+				+ "Then A's x is 7", StoryTest.class);
+	}
+
+	@Test
+	public void failureInMultiPlaceholderStep() throws Exception {
+		try {
+			tester.testOnInheritanceTree("Given A of x 3 and of z Word\n"
+					+ "When A's x is 5 and y is false\n"
+					+ "Then A's y is true", StoryTest.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			Assert.assertEquals("Then A's y is true", e.getSentance());
+			Assert.assertEquals("true", e.getStoryExpected());
+			Assert.assertEquals("false", e.getTestResult());
+		}
+	}
+
+	@Test(expected = WhenNotFoundException.class)
+	public void tooFewWords() throws Exception {
+		tester.testOnInheritanceTree("Given A of x 3 and of z Word\n"
+				+ "When A's x is 5 and y is", StoryTest.class);
+	}
+}
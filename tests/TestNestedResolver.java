@@ -0,0 +1,108 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import provided.GivenNotFoundException;
+import provided.StoryTestException;
+import solution.Given;
+import solution.StoryTesterImpl;
+import solution.Then;
+import solution.When;
+
+import java.lang.reflect.Method;
+
+public class TestNestedResolver {
+
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+
+	public static class Root {
+		static int created;
+
+		public Root() {
+			created++;
+		}
+
+		public static class Empty {
+		}
+
+		public static class Middle {
+			public static class Leaf {
+				private int value;
+
+				@Given("a leaf of value &value")
+				public void leaf(Integer value) {
+					this.value = value;
+				}
+
+				@When("the value is increased by &amount")
+				public void increase(Integer amount) {
+					this.value += amount;
+				}
+
+				@Then("the value is &value")
+				public void value(String value) {
+					Assert.assertEquals(value, String.valueOf(this.value));
+				}
+			}
+		}
+	}
+
+	public static class Generated {
+		public static class Pair {
+			private int sum;
+
+			@Given("a pair of &x and &y")
+			public void pair(int x, int y) {
+				sum = x + y;
+			}
+
+			@Then("the sum is &sum")
+			public void sum(int sum) {
+				Assert.assertEquals(sum, this.sum);
+			}
+		}
+	}
+
+	private static int numCached(Class<?> root) throws Exception {
+		Method method = Class.forName("solution.NestedClassResolver").getDeclaredMethod("numCached", Class.class);
+		method.setAccessible(true);
+		return (int) method.invoke(null, root);
+	}
+
+	@Test
+	public void cacheIsBounded() throws Exception {
+		// Every story has another first argument, so another cached sentence.
+		for (int i = 0; i < 1100; i++) {
+			tester.testOnNestedClasses("Given a pair of " + i + " and 1\nThen the sum is " + (i + 1), Generated.class);
+		}
+		Assert.assertEquals(1024, numCached(Generated.class));
+	}
+
+	@Test
+	public void classesWithoutTheGivenAreNeverInstantiated() throws Exception {
+		Root.created = 0;
+		for (int i = 0; i < 3; i++) {
+			tester.testOnNestedClasses("Given a leaf of value 3\nThen the value is 3", Root.class);
+		}
+		Assert.assertEquals(0, Root.created);
+	}
+
+	@Test
+	public void failuresReportedFromTheResolvedClass() throws Exception {
+		try {
+			tester.testOnNestedClasses("Given a leaf of value 3\n"
+					+ "When the value is increased by 2\n"
+					+ "Then the value is 4", Root.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			Assert.assertEquals("Then the value is 4", e.getSentance());
+			Assert.assertEquals("5", e.getTestResult());
+			Assert.assertEquals(1, e.getNumFail());
+		}
+	}
+
+	@Test(expected = GivenNotFoundException.class)
+	public void givenNotFoundAnywhere() throws Exception {
+		tester.testOnNestedClasses("Given a tree of value 3\nThen the value is 3", Root.class);
+	}
+}
@@ -0,0 +1,178 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+import provided.StoryTestException;
+import solution.CompiledStory;
+import solution.Given;
+import solution.InvocationMode;
+import solution.ParameterConverters;
+import solution.StoryCompiler;
+import solution.StoryTesterImpl;
+import solution.Then;
+import solution.When;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+public class TestParameterBinding {
+
+	public enum Speed {SLOW, FAST}
+
+	public static final class Money {
+		final String amount;
+
+		Money(String amount) {
+			this.amount = amount;
+		}
+	}
+
+	static {
+		ParameterConverters.register(Money.class, s -> new Money(s.substring(1)));
+		// Also accepts hexadecimal, and long parameters use it as well.
+		ParameterConverters.register(Long.class, Long::decode);
+	}
+
+	public static class Typed {
+		private String state = "";
+
+		@Given("an empty state &x")
+		public void empty(int x) {
+			state = "";
+		}
+
+		@When("an int &x")
+		public void anInt(int x) {
+			state = "int " + (x + 1);
+		}
+
+		@When("a long &x")
+		public void aLong(long x) {
+			state = "long " + (x + 1);
+		}
+
+		@When("a double &x")
+		public void aDouble(double x) {
+			state = "double " + x * 2;
+		}
+
+		@When("a boolean &x")
+		public void aBoolean(boolean x) {
+			state = "boolean " + !x;
+		}
+
+		@When("a speed &x")
+		public void aSpeed(Speed x) {
+			state = "speed " + x.ordinal();
+		}
+
+		@When("a decimal &x")
+		public void aDecimal(BigDecimal x) {
+			state = "decimal " + x.scale();
+		}
+
+		@When("a duration &x")
+		public void aDuration(Duration x) {
+			state = "duration " + x.toMinutes();
+		}
+
+		@When("a price &x")
+		public void aPrice(Money x) {
+			state = "price " + x.amount;
+		}
+
+		@When("a hex long &x")
+		public void aHexLong(long x) {
+			state = "hex " + x;
+		}
+
+		@When("an int &x and a speed &y and a boolean &z")
+		public void mixed(int x, Speed y, boolean z) {
+			state = x + " " + y + " " + z;
+		}
+
+		@Then("the state is &x")
+		public void stateIs(String x) {
+			String expected = x.replace('_', ' ');
+			if (!expected.equals(state)) throw new ComparisonFailure(null, expected, state);
+		}
+	}
+
+	private static final String story = "Given an empty state 0\n"
+			+ "When an int 41\n"
+			+ "Then the state is int_42\n"
+			+ "When a long 9876543210\n"
+			+ "Then the state is long_9876543211\n"
+			+ "When a double 1.25\n"
+			+ "Then the state is double_2.5\n"
+			+ "When a boolean TRUE\n"
+			+ "Then the state is boolean_false\n"
+			+ "When a boolean yes\n"
+			+ "Then the state is boolean_true\n"
+			+ "When a speed FAST\n"
+			+ "Then the state is speed_1\n"
+			+ "When a decimal 3.140\n"
+			+ "Then the state is decimal_3\n"
+			+ "When a duration PT1H30M\n"
+			+ "Then the state is duration_90\n"
+			+ "When a price $12\n"
+			+ "Then the state is price_12\n"
+			+ "When an int 7 and a speed SLOW and a boolean true\n"
+			+ "Then the state is 7_SLOW_true";
+
+	@Test
+	public void everyTypeInBothModes() throws Exception {
+		for (InvocationMode mode : InvocationMode.values()) {
+			new StoryTesterImpl().withInvocationMode(mode).testOnInheritanceTree(story, Typed.class);
+		}
+	}
+
+	@Test
+	public void compiledStoryConvertsOnce() throws Exception {
+		CompiledStory compiled = StoryCompiler.compile(story);
+		StoryTesterImpl tester = new StoryTesterImpl();
+		for (int i = 0; i < 3; i++) {
+			tester.testOnInheritanceTree(compiled, Typed.class);
+		}
+		for (InvocationMode mode : InvocationMode.values()) {
+			new StoryTesterImpl().withInvocationMode(mode).testOnInheritanceTree(compiled, Typed.class);
+		}
+	}
+
+	@Test
+	public void primitivesUseRegisteredConverters() throws Exception {
+		String story = "Given an empty state 0\n"
+				+ "When a hex long 0x10\n"
+				+ "Then the state is hex_16";
+		for (InvocationMode mode : InvocationMode.values()) {
+			new StoryTesterImpl().withInvocationMode(mode).testOnInheritanceTree(story, Typed.class);
+			new StoryTesterImpl().withInvocationMode(mode).testOnInheritanceTree(StoryCompiler.compile(story), Typed.class);
+		}
+	}
+
+	@Test
+	public void failuresStillReported() throws Exception {
+		try {
+			new StoryTesterImpl().testOnInheritanceTree("Given an empty state 0\n"
+					+ "When an int 1\n"
+					+ "Then the state is int_3", Typed.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			Assert.assertEquals("int 3", e.getStoryExpected());
+			Assert.assertEquals("int 2", e.getTestResult());
+		}
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void badNumber() throws Exception {
+		new StoryTesterImpl().testOnInheritanceTree("Given an empty state 0\n"
+				+ "When an int many", Typed.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badEnumConstant() throws Exception {
+		new StoryTesterImpl().testOnInheritanceTree("Given an empty state 0\n"
+				+ "When a speed MEDIUM", Typed.class);
+	}
+}
@@ -0,0 +1,91 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+import provided.StoryTestException;
+import solution.Given;
+import solution.StoryTesterImpl;
+import solution.Then;
+import solution.When;
+
+public class TestShadowing {
+
+	public static class Grandparent {
+		protected String called;
+
+		@Given("a value of &x")
+		public void given(String x) {
+			called = "none";
+		}
+
+		/**
+		 * Matches with more literal words, but is shadowed by the placeholder step of Child.
+		 */
+		@When("set to 4 by &who")
+		public void setFourByGrandparent(String who) {
+			called = "grandparent";
+		}
+
+		@When("grandparent only &x")
+		public void grandparentOnly(String x) {
+			called = "grandparent";
+		}
+
+		@Then("called by &who")
+		public void calledBy(String who) {
+			if (!who.equals(called)) throw new ComparisonFailure(null, who, called);
+		}
+	}
+
+	public static class Parent extends Grandparent {
+		@When("set to &x by &who")
+		public void setByParent(Integer x, String who) {
+			called = "parent";
+		}
+	}
+
+	public static class Child extends Parent {
+		@When("set to &x by &who")
+		public void setByChild(Integer x, String who) {
+			called = "child";
+		}
+	}
+
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+
+	@Test
+	public void subclassShadowsLiteralAncestor() throws Exception {
+		tester.testOnInheritanceTree("Given a value of 1\n"
+				+ "When set to 4 by me\n"
+				+ "Then called by child", Child.class);
+		tester.testOnInheritanceTree("Given a value of 1\n"
+				+ "When set to 4 by me\n"
+				+ "Then called by parent", Parent.class);
+		tester.testOnInheritanceTree("Given a value of 1\n"
+				+ "When set to 4 by me\n"
+				+ "Then called by grandparent", Grandparent.class);
+	}
+
+	@Test
+	public void ancestorStepsReachable() throws Exception {
+		tester.testOnInheritanceTree("Given a value of 1\n"
+				+ "When grandparent only 1\n"
+				+ "Then called by grandparent\n"
+				+ "When set to 5 by me\n"
+				+ "Then called by child", Child.class);
+	}
+
+	@Test
+	public void shadowedStepNeverInvoked() throws Exception {
+		try {
+			tester.testOnInheritanceTree("Given a value of 1\n"
+					+ "When set to 4 by me\n"
+					+ "Then called by parent", Child.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			Assert.assertEquals("parent", e.getStoryExpected());
+			Assert.assertEquals("child", e.getTestResult());
+		}
+	}
+}
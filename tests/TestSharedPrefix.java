@@ -0,0 +1,120 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+import solution.Given;
+import solution.SharedPrefixRunner;
+import solution.StoryResult;
+import solution.StoryTesterImpl;
+import solution.Then;
+import solution.When;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestSharedPrefix {
+
+	public static class Counting {
+		static int numSteps;
+
+		private int value;
+
+		@Given("a value of &x")
+		public void given(int x) {
+			numSteps++;
+			value = x;
+		}
+
+		@When("adding &x")
+		public void add(int x) {
+			numSteps++;
+			value += x;
+		}
+
+		@Then("the value is &x")
+		public void valueIs(int x) {
+			numSteps++;
+			if (x != value) throw new ComparisonFailure(null, Integer.toString(x), Integer.toString(value));
+		}
+	}
+
+	private static void assertSameResult(StoryResult expected, StoryResult actual) {
+		Assert.assertEquals(expected.passed(), actual.passed());
+		Assert.assertEquals(expected.getSentence(), actual.getSentence());
+		Assert.assertEquals(expected.getStoryExpected(), actual.getStoryExpected());
+		Assert.assertEquals(expected.getTestResult(), actual.getTestResult());
+		Assert.assertEquals(expected.getNumFail(), actual.getNumFail());
+		Assert.assertEquals(expected.getNumLinesRun(), actual.getNumLinesRun());
+		Assert.assertEquals(expected.getMissingStep(), actual.getMissingStep());
+		Assert.assertEquals(expected.getFailedThens().size(), actual.getFailedThens().size());
+		for (int i = 0; i < expected.getFailedThens().size(); i++) {
+			Assert.assertEquals(expected.getFailedThens().getLineIndex(i), actual.getFailedThens().getLineIndex(i));
+			Assert.assertEquals(expected.getFailedThens().getActual(i), actual.getFailedThens().getActual(i));
+		}
+	}
+
+	private static void assertSameAsSeparateRuns(List<String> stories, Class<?> testClass) throws Exception {
+		List<StoryResult> shared = new SharedPrefixRunner().runAllStories(stories, testClass);
+		Assert.assertEquals(stories.size(), shared.size());
+		StoryTesterImpl tester = new StoryTesterImpl();
+		for (int i = 0; i < stories.size(); i++) {
+			assertSameResult(tester.runOnInheritanceTree(stories.get(i), testClass), shared.get(i));
+		}
+	}
+
+	@Test
+	public void sameResultsAsSeparateRuns() throws Exception {
+		assertSameAsSeparateRuns(Arrays.asList(
+				"Given a value of 1\nWhen adding 2\nThen the value is 3",
+				"Given a value of 1\nWhen adding 2\nThen the value is 4\nWhen adding 1\nThen the value is 2",
+				"Given a value of 1\nWhen adding 2\nThen the value is 5\nThen the value is 1",
+				"Given a value of 1\nWhen adding 2",
+				"Given a value of 1\nWhen adding 2\nThen the value is 3\nWhen subtracting 1",
+				"Given a value of 1\nWhen adding 3\nThen the value is 4",
+				"Given a value of 2\nThen the value is 2"), Counting.class);
+	}
+
+	@Test
+	public void cloneableFieldsRestoredBetweenBranches() throws Exception {
+		assertSameAsSeparateRuns(Arrays.asList(
+				"Given a Cat of age 6\nWhen the Cat did kaki of size 3\nThen the kaki size is 3",
+				"Given a Cat of age 6\nWhen the Cat did kaki of size 3\nThen the kaki size is 2\nThen the kaki size is 0",
+				"Given a Cat of age 6\nWhen the Cat did kaki of size 5\nThen the kaki size is 5",
+				"Given a Cat of age 6\nThen the kaki size is 0"), CatStory.class);
+	}
+
+	@Test
+	public void inheritedFieldsRestoredBetweenBranches() throws Exception {
+		// B is a field of StoryTestParent2, an ancestor of StoryTest.
+		assertSameAsSeparateRuns(Arrays.asList(
+				"Given B of x 1\nWhen B's y is foo\nThen B's y is foo",
+				"Given B of x 1\nWhen B's x is 7\nThen B's y is Hello",
+				"Given B of x 1\nThen B's y is Hello"), StoryTest.class);
+	}
+
+	@Test
+	public void endingStoryKeepsItsFailures() throws Exception {
+		// The first story ends at a node the second one goes on from, and fails again after.
+		assertSameAsSeparateRuns(Arrays.asList(
+				"Given a value of 1\nWhen adding 1\nThen the value is 3",
+				"Given a value of 1\nWhen adding 1\nThen the value is 3\nThen the value is 4\nThen the value is 5"),
+				Counting.class);
+	}
+
+	@Test
+	public void sharedLinesRunOnce() throws Exception {
+		List<String> stories = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			stories.add("Given a value of 1\nWhen adding 1\nWhen adding 1\nThen the value is " + (i % 4));
+		}
+		Counting.numSteps = 0;
+		List<StoryResult> results = new SharedPrefixRunner().runAllStories(stories, Counting.class);
+		// The three shared lines, and one Then for each of the 4 distinct stories.
+		Assert.assertEquals(3 + 4, Counting.numSteps);
+		Assert.assertTrue(results.get(3).passed());
+		Assert.assertFalse(results.get(0).passed());
+		Assert.assertEquals(results.get(0).getTestResult(), results.get(4).getTestResult());
+	}
+}
@@ -0,0 +1,130 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import provided.StoryTestException;
+import solution.ExceptionMode;
+import solution.InvocationMode;
+import solution.LatencyHistogram;
+import solution.StepTimings;
+import solution.StoryTesterImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestStepTimings {
+
+	private final StepTimings timings = new StepTimings();
+	private final StoryTesterImpl tester = new StoryTesterImpl().withStepTimings(timings);
+
+	@Test
+	public void stepsAndClassesRecorded() throws Exception {
+		tester.testOnInheritanceTree("Given a value of 1\n"
+				+ "When sleeping for 20\n"
+				+ "When spinning for 0\n"
+				+ "When spinning for 0\n"
+				+ "Then the value is 1", TestExecutionPolicy.Slow.class);
+
+		Assert.assertEquals(1, timings.getTestClasses().size());
+		Assert.assertEquals(4, timings.getSteps(TestExecutionPolicy.Slow.class).size());
+		LatencyHistogram sleep = timings.getStepHistogram(TestExecutionPolicy.Slow.class, "When sleeping for &ms");
+		Assert.assertEquals(1, sleep.getCount());
+		Assert.assertTrue(sleep.getMinNanos() >= 20_000_000L);
+		Assert.assertEquals(2, timings.getStepHistogram(TestExecutionPolicy.Slow.class, "When spinning for &ms").getCount());
+
+		LatencyHistogram all = timings.getClassHistogram(TestExecutionPolicy.Slow.class);
+		Assert.assertEquals(5, all.getCount());
+		Assert.assertEquals(sleep.getMaxNanos(), all.getMaxNanos());
+		Assert.assertNull(timings.getStepHistogram(TestExecutionPolicy.Slow.class, "When NOT_TO_BE_FOUND &x"));
+		Assert.assertNull(timings.getClassHistogram(CatStory.class));
+	}
+
+	@Test
+	public void failedStepsAndAncestorsRecorded() throws Exception {
+		try {
+			tester.testOnInheritanceTree("Given a Cat of age 6\n"
+					+ "When the Cat did kaki of size 1\n"
+					+ "Then the kaki size is 0", CatStory.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			Assert.assertEquals(1, e.getNumFail());
+		}
+		Assert.assertEquals(3, timings.getClassHistogram(CatStory.class).getCount());
+		Assert.assertEquals(1, timings.getStepHistogram(CatStory.class, "Then the kaki size is &size").getCount());
+
+		String dump = timings.toString();
+		Assert.assertTrue(dump, dump.startsWith(CatStory.class.getName() + ": count=3 "));
+		Assert.assertTrue(dump, dump.contains("\n    Then the kaki size is &size: count=1 "));
+	}
+
+	@Test
+	public void notTimedByDefault() throws Exception {
+		new StoryTesterImpl().testOnInheritanceTree("Given a value of 1", TestExecutionPolicy.Slow.class);
+		tester.withStepTimings(null).testOnInheritanceTree("Given a value of 1", TestExecutionPolicy.Slow.class);
+		Assert.assertTrue(timings.getTestClasses().isEmpty());
+	}
+
+	@Test
+	public void otherSettingsKept() throws Exception {
+		StoryTesterImpl configured = new StoryTesterImpl().withExceptionMode(ExceptionMode.STACKLESS)
+				.withStepTimings(timings).withInvocationMode(InvocationMode.REFLECTION);
+		try {
+			configured.testOnInheritanceTree("Given a Cat of age 6\n"
+					+ "When the Cat did kaki of size 1\n"
+					+ "Then the kaki size is 0", CatStory.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			Assert.assertEquals(0, e.getStackTrace().length);
+		}
+		Assert.assertEquals(3, timings.getClassHistogram(CatStory.class).getCount());
+	}
+
+	@Test
+	public void histogramPrecision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assert.assertEquals(0, histogram.getValueAtPercentile(50));
+		for (long value = 1; value <= 1000; value++) {
+			histogram.record(value * 1000);
+		}
+		Assert.assertEquals(1000, histogram.getCount());
+		Assert.assertEquals(1000, histogram.getMinNanos());
+		Assert.assertEquals(1_000_000, histogram.getMaxNanos());
+		Assert.assertEquals(500_500, histogram.getMeanNanos(), 0.001);
+		for (double percentile : new double[]{1, 50, 90, 99}) {
+			long exact = (long) (percentile * 10) * 1000;
+			long value = histogram.getValueAtPercentile(percentile);
+			Assert.assertTrue(percentile + ": " + value, value >= exact && value <= exact * 17 / 16);
+		}
+		Assert.assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+
+		histogram.record(Long.MAX_VALUE);
+		histogram.record(-5);
+		Assert.assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+		Assert.assertEquals(0, histogram.getMinNanos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badPercentile() {
+		new LatencyHistogram().getValueAtPercentile(101);
+	}
+
+	@Test
+	public void concurrentRecording() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			final int offset = t;
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					histogram.record(i + offset);
+				}
+			}));
+		}
+		for (Thread thread : threads) thread.start();
+		for (Thread thread : threads) thread.join();
+		Assert.assertEquals(40_000, histogram.getCount());
+		Assert.assertEquals(0, histogram.getMinNanos());
+		Assert.assertEquals(10_002, histogram.getMaxNanos());
+		Assert.assertEquals(10_002, histogram.getValueAtPercentile(100));
+	}
+}
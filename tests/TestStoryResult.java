@@ -0,0 +1,106 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import provided.GivenNotFoundException;
+import provided.StoryTestException;
+import provided.ThenNotFoundException;
+import solution.ExceptionMode;
+import solution.Given;
+import solution.StoryCompiler;
+import solution.StoryResult;
+import solution.StoryTesterImpl;
+import solution.Then;
+
+public class TestStoryResult {
+
+	private static final String badStory = "Given a Dog of age 6\n"
+			+ "When the dog is not taken out for a walk, and the number of hours is 15\n"
+			+ "Then the house condition is clean";
+
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+	private final StoryTesterImpl stackless = new StoryTesterImpl().withExceptionMode(ExceptionMode.STACKLESS);
+
+	@Test
+	public void passed() throws Exception {
+		StoryResult result = tester.runOnInheritanceTree("Given a Dog of age 6\n"
+				+ "When the dog is not taken out for a walk, and the number of hours is 5\n"
+				+ "Then the house condition is clean", DogStoryTest.class);
+		Assert.assertTrue(result.passed());
+		Assert.assertEquals(0, result.getNumFail());
+		Assert.assertNull(result.getSentence());
+		Assert.assertNull(result.getMissingStep());
+	}
+
+	@Test
+	public void failedThen() throws Exception {
+		StoryResult result = tester.runOnInheritanceTree(badStory, DogStoryTest.class);
+		Assert.assertFalse(result.passed());
+		Assert.assertEquals(1, result.getNumFail());
+		Assert.assertEquals("Then the house condition is clean", result.getSentence());
+		Assert.assertEquals("clean", result.getStoryExpected());
+		Assert.assertEquals("smelly", result.getTestResult());
+		Assert.assertEquals(result.getNumFail(), tester.runOnInheritanceTree(StoryCompiler.compile(badStory),
+				DogStoryTest.class).getNumFail());
+	}
+
+	@Test
+	public void restoredFieldsCounted() throws Exception {
+		Assert.assertEquals(1, tester.runOnInheritanceTree("Given a value of 1\n"
+				+ "When adding 2\n"
+				+ "Then the value is 4", TestSharedPrefix.Counting.class).getNumFieldsRestored());
+		Assert.assertEquals(0, tester.runOnInheritanceTree("Given a value of 1\n"
+				+ "When adding 2\n"
+				+ "Then the value is 3", TestSharedPrefix.Counting.class).getNumFieldsRestored());
+		// The Dog field still refers to the same Dog, which backing up shares.
+		Assert.assertEquals(0, tester.runOnInheritanceTree(badStory, DogStoryTest.class).getNumFieldsRestored());
+	}
+
+	@Test
+	public void missingStep() throws Exception {
+		StoryResult result = tester.runOnInheritanceTree("Given a Dog of age 6\n"
+				+ "Then the dog is happy", DogStoryTest.class);
+		Assert.assertFalse(result.passed());
+		Assert.assertEquals(Then.class, result.getMissingStep());
+		Assert.assertEquals("Then the dog is happy", result.getMissingSentence());
+	}
+
+	@Test
+	public void missingNestedGiven() throws Exception {
+		StoryResult result = tester.runOnNestedClasses("Given Nowhere to be found 1\n"
+				+ "Then C's x is 1", StoryTest.class);
+		Assert.assertEquals(Given.class, result.getMissingStep());
+		Assert.assertEquals("Given Nowhere to be found 1", result.getMissingSentence());
+		Assert.assertTrue(tester.runOnNestedClasses("Given C of x 3\n"
+				+ "Then C's x is 3", StoryTest.class).passed());
+	}
+
+	@Test
+	public void stacklessStoryTestException() throws Exception {
+		try {
+			stackless.testOnInheritanceTree(badStory, DogStoryTest.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			Assert.assertEquals(0, e.getStackTrace().length);
+			Assert.assertEquals("Then the house condition is clean", e.getSentance());
+			Assert.assertEquals(1, e.getNumFail());
+		}
+	}
+
+	@Test
+	public void stacklessWordNotFound() throws Exception {
+		try {
+			stackless.testOnInheritanceTree("Given a Dog of age 6\n"
+					+ "Then the dog is happy", DogStoryTest.class);
+			Assert.fail();
+		} catch (ThenNotFoundException e) {
+			Assert.assertEquals(0, e.getStackTrace().length);
+		}
+		try {
+			stackless.testOnNestedClasses("Given Nowhere to be found 1", StoryTest.class);
+			Assert.fail();
+		} catch (GivenNotFoundException e) {
+			Assert.assertEquals(0, e.getStackTrace().length);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import provided.StoryTestException;
+import solution.StoryTesterImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TestStreaming {
+
+	private final StoryTesterImpl tester = new StoryTesterImpl();
+
+	private static final String badStory = "Given a Cat of age 6\n"
+			+ "When the Cat did kaki of size 1\n"
+			+ "Then the kaki size is 0\n" //fail
+			+ "When the Cat did kaki of size 1\n"
+			+ "Then the kaki size is 1\n"
+			+ "When the Cat did kaki of size 2\n"
+			+ "Then the kaki size is 7\n"; //fail
+
+	/** Generates a story of the given number of When/Then pairs on the fly, without holding it in memory **/
+	private static class GeneratedStory extends Reader {
+		private final int pairs;
+		private int pair = -1;
+		private String current = "Given a Cat of age 6\n";
+		private int offset;
+
+		GeneratedStory(int pairs) {
+			this.pairs = pairs;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if (offset == current.length()) {
+				if (++pair >= pairs) return -1;
+				current = "When the Cat did kaki of size " + pair + "\n"
+						+ "Then the kaki size is " + pair + "\n";
+				offset = 0;
+			}
+			int n = Math.min(len, current.length() - offset);
+			current.getChars(offset, offset + n, cbuf, off);
+			offset += n;
+			return n;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static void assertBadStory(StoryTestException e) {
+		Assert.assertEquals("Then the kaki size is 0", e.getSentance());
+		Assert.assertEquals("0", e.getStoryExpected());
+		Assert.assertEquals("1", e.getTestResult());
+		Assert.assertEquals(2, e.getNumFail());
+	}
+
+	@Test
+	public void reader() throws Exception {
+		try {
+			tester.testOnInheritanceTree(new StringReader(badStory), CatStory.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			assertBadStory(e);
+		}
+	}
+
+	@Test
+	public void inputStream() throws Exception {
+		try {
+			tester.testOnInheritanceTree(new ByteArrayInputStream(badStory.getBytes(StandardCharsets.UTF_8)), CatStory.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			assertBadStory(e);
+		}
+	}
+
+	@Test
+	public void path() throws Exception {
+		Path file = Files.createTempFile("story", ".txt");
+		try {
+			Files.write(file, badStory.getBytes(StandardCharsets.UTF_8));
+			tester.testOnInheritanceTree(file, CatStory.class);
+			Assert.fail();
+		} catch (StoryTestException e) {
+			assertBadStory(e);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void longGeneratedStory() throws Exception {
+		tester.testOnInheritanceTree(new GeneratedStory(100000), CatStory.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyLineInside() throws Exception {
+		tester.testOnInheritanceTree(new StringReader("Given a Cat of age 6\n\nThen the kaki size is 0"), CatStory.class);
+	}
+}
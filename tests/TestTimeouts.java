@@ -0,0 +1,133 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import solution.ExecutionPolicy;
+import solution.StopReason;
+import solution.StoryBatchResult;
+import solution.StoryBatchRunner;
+import solution.StoryJob;
+import solution.StoryResult;
+import solution.StoryTesterImpl;
+import solution.StoryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestTimeouts {
+
+	private static StoryTesterImpl tester(ExecutionPolicy policy) {
+		return new StoryTesterImpl().withExecutionPolicy(policy);
+	}
+
+	private static final ExecutionPolicy stepTimeout = ExecutionPolicy.RUN_TO_END.withStepTimeout(Duration.ofMillis(50));
+
+	@Test(timeout = 5000)
+	public void hangingStepInterrupted() throws Exception {
+		StoryResult result = tester(stepTimeout).runOnInheritanceTree("Given a value of 1\n"
+				+ "When sleeping for 0\n"
+				+ "When sleeping for 60000\n"
+				+ "Then the value is 2", TestExecutionPolicy.Slow.class);
+		Assert.assertEquals(StopReason.STEP_TIMEOUT, result.getStopReason());
+		Assert.assertEquals("When sleeping for 60000", result.getTimedOutSentence());
+		Assert.assertEquals(3, result.getNumLinesRun());
+		Assert.assertEquals(0, result.getNumFail());
+		Assert.assertFalse(result.passed());
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test(timeout = 5000)
+	public void stepIgnoringInterruptReportedAfterItEnds() throws Exception {
+		StoryResult result = tester(stepTimeout).runOnInheritanceTree("Given a value of 1\n"
+				+ "When spinning for 200\n"
+				+ "Then the value is 1", TestExecutionPolicy.Slow.class);
+		Assert.assertEquals(StopReason.STEP_TIMEOUT, result.getStopReason());
+		Assert.assertEquals("When spinning for 200", result.getTimedOutSentence());
+		Assert.assertEquals(2, result.getNumLinesRun());
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test(timeout = 5000)
+	public void fastStepsNotAffected() throws Exception {
+		StoryResult result = tester(stepTimeout).runOnInheritanceTree("Given a value of 1\n"
+				+ "When sleeping for 1\n"
+				+ "Then the value is 1", TestExecutionPolicy.Slow.class);
+		Assert.assertTrue(result.passed());
+		Assert.assertNull(result.getStopReason());
+	}
+
+	@Test(timeout = 5000)
+	public void storyTimeout() throws Exception {
+		ExecutionPolicy policy = ExecutionPolicy.RUN_TO_END.withStoryTimeout(Duration.ofMillis(100));
+		StringBuilder story = new StringBuilder("Given a value of 1");
+		for (int i = 0; i < 100; i++) {
+			story.append("\nWhen sleeping for 30");
+		}
+		try {
+			tester(policy).testOnInheritanceTree(story.toString(), TestExecutionPolicy.Slow.class);
+			Assert.fail();
+		} catch (StoryTimeoutException e) {
+			Assert.assertEquals(StopReason.STORY_TIMEOUT, e.getResult().getStopReason());
+			Assert.assertTrue(e.getResult().getNumLinesRun() < 10);
+		}
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test(timeout = 10000)
+	public void parallelRunsShareTheWatchdog() throws Exception {
+		List<StoryJob> jobs = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			jobs.add(new StoryJob("Given a value of 1\n"
+					+ "When sleeping for " + (i % 2 == 0 ? 60000 : 1) + "\n"
+					+ "Then the value is 1", TestExecutionPolicy.Slow.class));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			StoryBatchResult result = new StoryBatchRunner(tester(stepTimeout), executor).runAll(jobs);
+			Assert.assertEquals(20, result.getNumPassed());
+			Assert.assertEquals(20, result.getNumStopped());
+			Assert.assertEquals(0, result.getNumErrors());
+			Assert.assertTrue(result.getResults().get(0).stopped());
+			Assert.assertTrue(result.getResults().get(0).getException() instanceof StoryTimeoutException);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static final ExecutionPolicy abandoning = stepTimeout.withAbandonedTimedOutSteps();
+
+	@Test(timeout = 5000)
+	public void stepIgnoringInterruptAbandoned() throws Exception {
+		long start = System.nanoTime();
+		StoryResult result = tester(abandoning).runOnInheritanceTree("Given a value of 1\n"
+				+ "When spinning for 2000\n"
+				+ "Then the value is 1", TestExecutionPolicy.Slow.class);
+		Assert.assertTrue(System.nanoTime() - start < Duration.ofMillis(1000).toNanos());
+		Assert.assertEquals(StopReason.STEP_TIMEOUT, result.getStopReason());
+		Assert.assertEquals("When spinning for 2000", result.getTimedOutSentence());
+		Assert.assertEquals(2, result.getNumLinesRun());
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test(timeout = 5000)
+	public void failuresReportedFromWorkers() throws Exception {
+		StoryResult result = tester(abandoning).runOnInheritanceTree("Given a value of 1\n"
+				+ "When sleeping for 1\n"
+				+ "Then the value is 2\n"
+				+ "When spinning for 1\n"
+				+ "Then the value is 1", TestExecutionPolicy.Slow.class);
+		Assert.assertNull(result.getStopReason());
+		Assert.assertEquals(1, result.getNumFail());
+		Assert.assertEquals("Then the value is 2", result.getSentence());
+		Assert.assertEquals("1", result.getTestResult());
+		Assert.assertEquals(5, result.getNumLinesRun());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void abandoningWithCpuBudget() {
+		stepTimeout.withCpuBudget(Duration.ofMillis(10)).withAbandonedTimedOutSteps();
+	}
+}